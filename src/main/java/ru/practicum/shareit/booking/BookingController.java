@@ -2,17 +2,23 @@ package ru.practicum.shareit.booking;
 
 import ru.practicum.shareit.booking.dto.*;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.common.FieldSet;
+import ru.practicum.shareit.idempotency.IdempotencyService;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Collection;
+import java.util.Optional;
 
 @Slf4j
 @Validated
@@ -22,15 +28,18 @@ import java.util.Collection;
 public class BookingController {
     public static final String X_SHARER_USER_ID = "X-Sharer-User-Id";
     private final BookingService bookingService;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public BookingDtoResponse createBooking(
             @RequestHeader(X_SHARER_USER_ID) @Positive Long userId,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY, required = false) String idempotencyKey,
             @Valid @RequestBody BookingDto bookingDto
     ) {
-        log.info("POST /bookings - создание бронирования от пользователя с id={}, данные: {}", userId, bookingDto);
-        return bookingService.createBooking(userId, bookingDto);
+        log.debug("POST /bookings - создание бронирования от пользователя с id={}, данные: {}", userId, bookingDto);
+        return idempotencyService.execute(userId, "POST /bookings", idempotencyKey, bookingDto,
+                () -> bookingService.createBooking(userId, bookingDto));
     }
 
     @PatchMapping("/{bookingId}")
@@ -39,7 +48,7 @@ public class BookingController {
             @PathVariable @Positive Long bookingId,
             @RequestParam boolean approved
     ) {
-        log.info("PATCH /bookings/{} - обновление статуса бронирования от пользователя с id={}, новый статус: {}",
+        log.debug("PATCH /bookings/{} - обновление статуса бронирования от пользователя с id={}, новый статус: {}",
                 bookingId, userId, approved ? "APPROVED" : "REJECTED");
         return bookingService.updateBookingStatus(userId, bookingId, approved);
     }
@@ -47,33 +56,51 @@ public class BookingController {
     @GetMapping("/{bookingId}")
     public BookingDtoResponse getBooking(
             @RequestHeader(X_SHARER_USER_ID) @Positive Long userId,
-            @PathVariable @Positive Long bookingId
+            @PathVariable @Positive Long bookingId,
+            WebRequest request
     ) {
-        log.info("GET /bookings/{} - получение бронирования по id от пользователя с id={}", bookingId, userId);
+        log.debug("GET /bookings/{} - получение бронирования по id от пользователя с id={}", bookingId, userId);
+        Optional<String> eTag = bookingService.getBookingETag(userId, bookingId);
+        if (eTag.isPresent() && request.checkNotModified(eTag.get())) return null;
+
         return bookingService.getBooking(userId, bookingId);
     }
 
     @GetMapping
-    public Collection<BookingDtoResponse> getUserBookings(
+    public MappingJacksonValue getUserBookings(
             @RequestHeader(X_SHARER_USER_ID) @Positive Long userId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-            @RequestParam(defaultValue = "10") @Positive int size
+            @RequestParam(defaultValue = "10") @Positive @Max(BookingService.MAX_PAGE_SIZE) int size,
+            @RequestParam(required = false) String fields
     ) {
-        log.info("GET /bookings?state={}&from={}&size={} - получение списка бронирований пользователя с id={}",
+        log.debug("GET /bookings?state={}&from={}&size={} - получение списка бронирований пользователя с id={}",
                 state, from, size, userId);
-        return bookingService.getUserBookings(userId, state, from, size);
+        FieldSet fieldSet = FieldSet.parse(fields);
+        return fieldSet.apply(bookingService.getUserBookings(userId, state, from, size, fieldSet));
     }
 
     @GetMapping("/owner")
-    public Collection<BookingDtoResponse> getOwnerBookings(
+    public MappingJacksonValue getOwnerBookings(
             @RequestHeader(X_SHARER_USER_ID) @Positive Long userId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-            @RequestParam(defaultValue = "10") @Positive int size
+            @RequestParam(defaultValue = "10") @Positive @Max(BookingService.MAX_PAGE_SIZE) int size,
+            @RequestParam(required = false) String fields
     ) {
-        log.info("GET /bookings/owner?state={}&from={}&size={} - получение списка бронирований владельца с id={}",
+        log.debug("GET /bookings/owner?state={}&from={}&size={} - получение списка бронирований владельца с id={}",
                 state, from, size, userId);
-        return bookingService.getOwnerBookings(userId, state, from, size);
+        FieldSet fieldSet = FieldSet.parse(fields);
+        return fieldSet.apply(bookingService.getOwnerBookings(userId, state, from, size, fieldSet));
+    }
+
+    @GetMapping("/owner/summary")
+    public Collection<BookingStateSummaryDto> getOwnerBookingsSummary(
+            @RequestHeader(X_SHARER_USER_ID) @Positive Long userId,
+            @RequestParam(defaultValue = "10") @Positive @Max(BookingService.MAX_PAGE_SIZE) int size
+    ) {
+        log.debug("GET /bookings/owner/summary?size={} - получение сводки бронирований владельца с id={}",
+                size, userId);
+        return bookingService.getOwnerBookingsSummary(userId, size);
     }
 }
@@ -1,7 +1,9 @@
 package ru.practicum.shareit.booking;
 
+import ru.practicum.shareit.booking.archive.ArchivedBooking;
 import ru.practicum.shareit.booking.dto.*;
 import ru.practicum.shareit.booking.model.*;
+import ru.practicum.shareit.common.FieldSet;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
@@ -19,6 +21,19 @@ public class BookingMapper {
         return booking;
     }
 
+    public static Booking toBooking(ArchivedBooking archivedBooking) {
+        Booking booking = new Booking();
+        booking.setId(archivedBooking.getId());
+        // Архив хранит uuid исходной брони, без него equals и hashCode не совпали бы с ней
+        booking.setUuid(archivedBooking.getUuid());
+        booking.setStartDate(archivedBooking.getStartDate());
+        booking.setEndDate(archivedBooking.getEndDate());
+        booking.setItem(archivedBooking.getItem());
+        booking.setBooker(archivedBooking.getBooker());
+        booking.setStatus(archivedBooking.getStatus());
+        return booking;
+    }
+
     public static BookingDto toBookingDto(Booking booking) {
         return BookingDto.builder()
                 .id(booking.getId())
@@ -29,12 +44,17 @@ public class BookingMapper {
     }
 
     public static BookingDtoResponse toBookingDtoResponse(Booking booking) {
+        return toBookingDtoResponse(booking, FieldSet.ALL);
+    }
+
+    // Вещь и автор брони — ленивые связи: не запрошенные в fields не загружаются
+    public static BookingDtoResponse toBookingDtoResponse(Booking booking, FieldSet fields) {
         return BookingDtoResponse.builder()
                 .id(booking.getId())
-                .item(toItemDto(booking.getItem()))
+                .item(fields.includes("item") ? toItemDto(booking.getItem()) : null)
                 .start(booking.getStartDate())
                 .end(booking.getEndDate())
-                .booker(toUserDto(booking.getBooker()))
+                .booker(fields.includes("booker") ? toUserDto(booking.getBooker()) : null)
                 .status(booking.getStatus())
                 .build();
     }
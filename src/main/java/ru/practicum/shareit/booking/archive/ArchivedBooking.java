@@ -0,0 +1,38 @@
+package ru.practicum.shareit.booking.archive;
+
+import ru.practicum.shareit.common.BaseEntity;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Entity
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString(onlyExplicitlyIncluded = true)
+@Table(name = "bookings_archive")
+public class ArchivedBooking extends BaseEntity {
+    @Id
+    @ToString.Include
+    private Long id;
+
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    private Item item;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    private User booker;
+
+    @Enumerated(EnumType.STRING)
+    private BookingStatus status;
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.archive;
+
+import java.time.LocalDateTime;
+
+/**
+ * Крайние даты архивных бронирований вещи, нужные для lastBooking и nextBooking.
+ */
+public interface ArchivedBookingDates {
+    Long getItemId();
+
+    LocalDateTime getFirstStart();
+
+    LocalDateTime getLastEnd();
+}
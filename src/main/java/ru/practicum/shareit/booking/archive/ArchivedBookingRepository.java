@@ -0,0 +1,42 @@
+package ru.practicum.shareit.booking.archive;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+    Page<ArchivedBooking> findByBookerIdAndEndDateIsBefore(
+            Long bookerId,
+            LocalDateTime end,
+            Pageable pageable
+    );
+
+    Page<ArchivedBooking> findByItemOwnerIdAndEndDateIsBefore(
+            Long ownerId,
+            LocalDateTime end,
+            Pageable pageable
+    );
+
+    long countByItemOwnerIdAndEndDateIsBefore(Long ownerId, LocalDateTime end);
+
+    boolean existsByItemIdAndBookerIdAndEndDateIsBefore(
+            Long itemId,
+            Long bookerId,
+            LocalDateTime end
+    );
+
+    @Query("select a.item.id as itemId, min(a.startDate) as firstStart, max(a.endDate) as lastEnd " +
+            "from ArchivedBooking a where a.item.id = :itemId group by a.item.id")
+    Optional<ArchivedBookingDates> findDatesByItemId(@Param("itemId") Long itemId);
+
+    @Query("select a.item.id as itemId, min(a.startDate) as firstStart, max(a.endDate) as lastEnd " +
+            "from ArchivedBooking a where a.item.id in :itemIds group by a.item.id")
+    List<ArchivedBookingDates> findDatesByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
+}
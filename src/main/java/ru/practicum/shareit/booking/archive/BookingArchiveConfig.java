@@ -0,0 +1,35 @@
+package ru.practicum.shareit.booking.archive;
+
+import ru.practicum.shareit.booking.shard.BookingShardOutbox;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+@EnableConfigurationProperties(BookingArchiveProperties.class)
+public class BookingArchiveConfig {
+
+    @Configuration
+    @EnableScheduling
+    @ConditionalOnProperty(prefix = "shareit.booking.archive", name = "enabled", havingValue = "true")
+    static class ArchiveJobConfig {
+
+        @Bean
+        public BookingArchiver bookingArchiver(JdbcTemplate jdbcTemplate,
+                                               PlatformTransactionManager transactionManager,
+                                               BookingArchiveProperties properties,
+                                               ApplicationEventPublisher eventPublisher,
+                                               ObjectProvider<BookingShardOutbox> shardOutbox) {
+            return new BookingArchiver(jdbcTemplate, new TransactionTemplate(transactionManager), properties,
+                    eventPublisher, shardOutbox.getIfAvailable());
+        }
+    }
+}
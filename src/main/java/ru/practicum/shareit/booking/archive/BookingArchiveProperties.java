@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.archive;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.booking.archive")
+public class BookingArchiveProperties {
+    private boolean enabled = false;
+
+    // Бронирования, завершившиеся раньше этого срока, переносятся в архив
+    private Duration horizon = Duration.ofDays(365);
+
+    private int batchSize = 1000;
+
+    private String cron = "0 30 3 * * *";
+}
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.booking.archive;
+
+import ru.practicum.shareit.booking.shard.BookingShardOutbox;
+import ru.practicum.shareit.item.cache.ItemChangedEvent;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+@Slf4j
+@RequiredArgsConstructor
+public class BookingArchiver {
+    private static final String COPY_BATCH = "insert into bookings_archive " +
+            "(id, uuid, start_date, end_date, item_id, booker_id, status) " +
+            "select id, uuid, start_date, end_date, item_id, booker_id, status from bookings " +
+            "where end_date < ? order by id limit ?";
+    private static final String ENQUEUE_SHARD_DELETES = "insert into booking_shard_outbox (booking_id) " +
+            "select b.id from bookings b where b.end_date < ? " +
+            "and exists (select 1 from bookings_archive a where a.id = b.id)";
+    private static final String DELETE_COPIED = "delete from bookings b where b.end_date < ? " +
+            "and exists (select 1 from bookings_archive a where a.id = b.id)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingArchiveProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    // Есть, только если включено шардирование: тогда перенесённые в архив бронирования удаляются и из шардов
+    private final BookingShardOutbox shardOutbox;
+
+    @Scheduled(cron = "${shareit.booking.archive.cron:0 30 3 * * *}")
+    public void archiveScheduled() {
+        archive(LocalDateTime.now());
+    }
+
+    public int archive(LocalDateTime now) {
+        Timestamp horizon = Timestamp.valueOf(now.minus(properties.getHorizon()));
+        int total = 0;
+        int moved;
+        do {
+            // Каждая пачка переносится в своей транзакции, чтобы не держать долгих блокировок
+            Integer batch = transactionTemplate.execute(status -> {
+                int copied = jdbcTemplate.update(COPY_BATCH, horizon, properties.getBatchSize());
+                if (copied > 0) {
+                    if (shardOutbox != null) jdbcTemplate.update(ENQUEUE_SHARD_DELETES, horizon);
+                    jdbcTemplate.update(DELETE_COPIED, horizon);
+                }
+                return copied;
+            });
+            moved = batch != null ? batch : 0;
+            total += moved;
+        } while (moved == properties.getBatchSize());
+
+        if (total > 0) {
+            // Бронирования ушли из списков вещей, затронутые вещи заранее неизвестны
+            eventPublisher.publishEvent(ItemChangedEvent.allItems());
+            log.info("Перенесено в архив {} бронирований, завершившихся до {}", total, horizon);
+        }
+        return total;
+    }
+}
@@ -3,11 +3,14 @@ package ru.practicum.shareit.booking.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     Page<Booking> findByBookerId(
@@ -42,6 +45,10 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             Long itemId
     );
 
+    Collection<Booking> findByItemIdIn(
+            Collection<Long> itemIds
+    );
+
     Collection<Booking> findByItemIdAndBookerIdAndEndDateIsBefore(
             Long itemId,
             Long bookerId,
@@ -79,4 +86,24 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             LocalDateTime end,
             Pageable pageable
     );
+
+    @Query("select count(b) as total, " +
+            "sum(case when b.startDate < :now and b.endDate > :now then 1 else 0 end) as currentCount, " +
+            "sum(case when b.endDate < :now then 1 else 0 end) as pastCount, " +
+            "sum(case when b.startDate > :now then 1 else 0 end) as futureCount, " +
+            "sum(case when b.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING " +
+            "then 1 else 0 end) as waitingCount, " +
+            "sum(case when b.status = ru.practicum.shareit.booking.model.BookingStatus.REJECTED " +
+            "then 1 else 0 end) as rejectedCount " +
+            "from Booking b " +
+            "where b.item.owner.id = :ownerId")
+    BookingStateCounts countByItemOwnerIdPerState(
+            @Param("ownerId") Long ownerId,
+            @Param("now") LocalDateTime now
+    );
+
+    @Query("select b.version as version, i.version as itemVersion, u.version as bookerVersion, " +
+            "u.id as bookerId, i.owner.id as ownerId " +
+            "from Booking b join b.item i join b.booker u where b.id = :bookingId")
+    Optional<BookingVersion> findVersionById(@Param("bookingId") Long bookingId);
 }
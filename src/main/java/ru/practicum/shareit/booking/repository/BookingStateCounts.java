@@ -0,0 +1,29 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.model.BookingState;
+
+public interface BookingStateCounts {
+    Long getTotal();
+
+    Long getCurrentCount();
+
+    Long getPastCount();
+
+    Long getFutureCount();
+
+    Long getWaitingCount();
+
+    Long getRejectedCount();
+
+    default long get(BookingState state) {
+        Long count = switch (state) {
+            case ALL -> getTotal();
+            case CURRENT -> getCurrentCount();
+            case PAST -> getPastCount();
+            case FUTURE -> getFutureCount();
+            case WAITING -> getWaitingCount();
+            case REJECTED -> getRejectedCount();
+        };
+        return count != null ? count : 0L;
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.repository;
+
+public interface BookingVersion {
+    Long getVersion();
+
+    Long getItemVersion();
+
+    Long getBookerVersion();
+
+    Long getBookerId();
+
+    Long getOwnerId();
+}
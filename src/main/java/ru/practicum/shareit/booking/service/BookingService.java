@@ -1,18 +1,31 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.common.FieldSet;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingStateSummaryDto;
 
 import java.util.Collection;
+import java.util.Optional;
 
 public interface BookingService {
+    int MAX_PAGE_SIZE = 100;
+
     BookingDtoResponse createBooking(Long userId, BookingDto bookingDto);
 
     BookingDtoResponse updateBookingStatus(Long userId, Long bookingId, boolean isApproved);
 
     BookingDtoResponse getBooking(Long userId, Long bookingId);
 
+    Optional<String> getBookingETag(Long userId, Long bookingId);
+
     Collection<BookingDtoResponse> getUserBookings(Long userId, String state, int from, int size);
 
+    Collection<BookingDtoResponse> getUserBookings(Long userId, String state, int from, int size, FieldSet fields);
+
     Collection<BookingDtoResponse> getOwnerBookings(Long userId, String state, int from, int size);
+
+    Collection<BookingDtoResponse> getOwnerBookings(Long userId, String state, int from, int size, FieldSet fields);
+
+    Collection<BookingStateSummaryDto> getOwnerBookingsSummary(Long userId, int size);
 }
@@ -1,24 +1,37 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.archive.ArchivedBooking;
+import ru.practicum.shareit.booking.archive.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.archive.BookingArchiveProperties;
 import ru.practicum.shareit.booking.dto.*;
 import ru.practicum.shareit.booking.model.*;
+import ru.practicum.shareit.common.FieldSet;
+import ru.practicum.shareit.common.OffsetPageRequest;
 import ru.practicum.shareit.exception.*;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingStateCounts;
 import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.item.cache.ItemChangedEvent;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.jfr.BookingOperationEvent;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 import static ru.practicum.shareit.booking.BookingMapper.*;
 import static ru.practicum.shareit.booking.model.BookingStatus.*;
@@ -28,8 +41,6 @@ import static ru.practicum.shareit.booking.model.BookingStatus.*;
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
-    private static final int DEFAULT_PAGE_SIZE = 10;
-    private static final int DEFAULT_PAGE_NUMBER = 0;
     public static final String USER_NOT_FOUND_ERR = "Пользователь с id %d не найден";
     public static final String BOOKING_NOT_FOUND_ERR = "Бронирование с id %d не найдено";
     public static final String ITEM_NOT_FOUND_ERR = "Вещь с id %d не найдена";
@@ -41,10 +52,15 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final BookingArchiveProperties archiveProperties;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
     public BookingDtoResponse createBooking(Long userId,BookingDto bookingDto) {
+        BookingOperationEvent event = new BookingOperationEvent();
+        event.begin();
         User booker = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException(String.format(USER_NOT_FOUND_ERR, userId)));
 
@@ -57,12 +73,25 @@ public class BookingServiceImpl implements BookingService {
         Booking booking = toBooking(booker, item, bookingDto);
 
         Booking savedBooking = bookingRepository.save(booking);
+        eventPublisher.publishEvent(new ItemChangedEvent(item.getId()));
+
+        if (event.shouldCommit()) {
+            event.operation = BookingOperationEvent.CREATE;
+            event.userId = userId;
+            event.bookingId = savedBooking.getId();
+            event.itemId = item.getId();
+            event.state = savedBooking.getStatus().name();
+            event.resultSize = 1;
+            event.commit();
+        }
         return toBookingDtoResponse(savedBooking);
     }
 
     @Override
     @Transactional
     public BookingDtoResponse updateBookingStatus(Long userId, Long bookingId, boolean isApproved) {
+        BookingOperationEvent event = new BookingOperationEvent();
+        event.begin();
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new NotFoundException(String.format(BOOKING_NOT_FOUND_ERR, bookingId)));
 
@@ -72,7 +101,18 @@ public class BookingServiceImpl implements BookingService {
 
         BookingStatus status = isApproved ? APPROVED : REJECTED;
         booking.setStatus(status);
+        eventPublisher.publishEvent(new ItemChangedEvent(booking.getItem().getId()));
 
+        if (event.shouldCommit()) {
+            event.operation = BookingOperationEvent.UPDATE_STATUS;
+            event.userId = userId;
+            event.bookingId = bookingId;
+            event.itemId = booking.getItem().getId();
+            event.state = status.name();
+            event.owner = true;
+            event.resultSize = 1;
+            event.commit();
+        }
         return toBookingDtoResponse(booking);
     }
 
@@ -88,28 +128,116 @@ public class BookingServiceImpl implements BookingService {
         return toBookingDtoResponse(booking);
     }
 
+    @Override
+    public Optional<String> getBookingETag(Long userId, Long bookingId) {
+        // Ответ включает вещь и автора брони, поэтому в метку входят и их версии
+        return bookingRepository.findVersionById(bookingId)
+                .filter(v -> v.getBookerId().equals(userId) || v.getOwnerId().equals(userId))
+                .map(v -> v.getVersion() + "." + v.getItemVersion() + "." + v.getBookerVersion());
+    }
+
     @Override
     public Collection<BookingDtoResponse> getUserBookings(Long userId, String state, int from, int size) {
+        return getUserBookings(userId, state, from, size, FieldSet.ALL);
+    }
+
+    @Override
+    public Collection<BookingDtoResponse> getUserBookings(Long userId, String state, int from, int size,
+                                                          FieldSet fields) {
         checkUserExists(userId);
         BookingState bookingState = parseState(state);
-        Page<Booking> bookings = findBookingsByStatus(userId, bookingState, false,
-                DEFAULT_PAGE_NUMBER, DEFAULT_PAGE_SIZE);
-        return mapToDtoResponse(bookings.getContent());
+        Page<Booking> bookings = findBookingsByStatus(userId, bookingState, false, from, pageSize(size));
+        return mapToDtoResponse(bookings.getContent(), fields);
     }
 
     @Override
     public Collection<BookingDtoResponse> getOwnerBookings(Long userId, String state, int from, int size) {
+        return getOwnerBookings(userId, state, from, size, FieldSet.ALL);
+    }
+
+    @Override
+    public Collection<BookingDtoResponse> getOwnerBookings(Long userId, String state, int from, int size,
+                                                           FieldSet fields) {
         checkUserExists(userId);
         BookingState bookingState = parseState(state);
-        Page<Booking> bookings = findBookingsByStatus(userId, bookingState, true,
-                DEFAULT_PAGE_NUMBER, DEFAULT_PAGE_SIZE);
-        return mapToDtoResponse(bookings.getContent());
+        Page<Booking> bookings = findBookingsByStatus(userId, bookingState, true, from, pageSize(size));
+        return mapToDtoResponse(bookings.getContent(), fields);
     }
 
-    private Page<Booking> findBookingsByStatus(Long userId, BookingState state, boolean isOwner,
-                                               int pageNumber, int pageSize) {
-        Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by(Sort.Direction.DESC, "startDate"));
+    @Override
+    public Collection<BookingStateSummaryDto> getOwnerBookingsSummary(Long userId, int requestedSize) {
+        checkUserExists(userId);
+        int size = pageSize(requestedSize);
         LocalDateTime now = LocalDateTime.now();
+        BookingStateCounts counts = bookingRepository.countByItemOwnerIdPerState(userId, now);
+        // Счётчики и страницы совпадают со списками по состояниям: архив входит только в PAST,
+        // остальные состояния, включая ALL, считаются по рабочей таблице
+        long archivedPast = archiveProperties.isEnabled()
+                ? archivedBookingRepository.countByItemOwnerIdAndEndDateIsBefore(userId, now)
+                : 0;
+        // Если все бронирования владельца помещаются в страницу, страницы состояний выбираются из неё
+        List<Booking> all = counts.get(BookingState.ALL) > 0 && counts.get(BookingState.ALL) <= size
+                ? findBookingsByStatus(userId, BookingState.ALL, true, 0, size, now).getContent()
+                : null;
+
+        return Arrays.stream(BookingState.values())
+                .map(state -> {
+                    long count = counts.get(state) + (state == BookingState.PAST ? archivedPast : 0);
+                    List<Booking> bookings;
+                    if (count == 0) {
+                        bookings = List.of();
+                    } else if (all != null && (state != BookingState.PAST || archivedPast == 0)) {
+                        bookings = all.stream().filter(booking -> isInState(booking, state, now)).toList();
+                    } else {
+                        bookings = findBookingsByStatus(userId, state, true, 0, size, now).getContent();
+                    }
+                    return new BookingStateSummaryDto(state, count, mapToDtoResponse(bookings));
+                })
+                .toList();
+    }
+
+    // Те же условия, что и в запросах queryBookingsByStatus
+    private static boolean isInState(Booking booking, BookingState state, LocalDateTime now) {
+        return switch (state) {
+            case ALL -> true;
+            case CURRENT -> booking.getStartDate().isBefore(now) && booking.getEndDate().isAfter(now);
+            case PAST -> booking.getEndDate().isBefore(now);
+            case FUTURE -> booking.getStartDate().isAfter(now);
+            case WAITING -> booking.getStatus() == BookingStatus.WAITING;
+            case REJECTED -> booking.getStatus() == BookingStatus.REJECTED;
+        };
+    }
+
+    private Page<Booking> findBookingsByStatus(Long userId, BookingState state, boolean isOwner,
+                                               int from, int size) {
+        return findBookingsByStatus(userId, state, isOwner, from, size, LocalDateTime.now());
+    }
+
+    private Page<Booking> findBookingsByStatus(Long userId, BookingState state, boolean isOwner,
+                                               int from, int size, LocalDateTime now) {
+        BookingOperationEvent event = new BookingOperationEvent();
+        event.begin();
+        Page<Booking> bookings = queryBookingsByStatus(userId, state, isOwner, from, size, now);
+        commitFindEvent(event, userId, state, isOwner, bookings.getNumberOfElements());
+        return bookings;
+    }
+
+    static void commitFindEvent(BookingOperationEvent event, Long userId, BookingState state, boolean isOwner,
+                                int resultSize) {
+        if (event.shouldCommit()) {
+            event.operation = BookingOperationEvent.FIND;
+            event.userId = userId;
+            event.state = state.name();
+            event.owner = isOwner;
+            event.resultSize = resultSize;
+            event.commit();
+        }
+    }
+
+    private Page<Booking> queryBookingsByStatus(Long userId, BookingState state, boolean isOwner,
+                                                int from, int size, LocalDateTime now) {
+        // from в API задаёт смещение в строках, а не номер страницы
+        Pageable pageable = OffsetPageRequest.of(from, size, Sort.by(Sort.Direction.DESC, "startDate"));
 
         return switch (state) {
             case CURRENT -> isOwner
@@ -117,9 +245,9 @@ public class BookingServiceImpl implements BookingService {
                     userId, now, now, pageable)
                     : bookingRepository.findByBookerIdAndStartDateIsBeforeAndEndDateIsAfter(
                     userId, now, now, pageable);
-            case PAST -> isOwner
-                    ? bookingRepository.findByItemOwnerIdAndEndDateIsBefore(userId, now, pageable)
-                    : bookingRepository.findByBookerIdAndEndDateIsBefore(userId, now, pageable);
+            case PAST -> archiveProperties.isEnabled()
+                    ? findPastBookingsWithArchive(userId, isOwner, now, pageable)
+                    : findPastBookings(userId, isOwner, now, pageable);
             case FUTURE -> isOwner
                     ? bookingRepository.findByItemOwnerIdAndStartDateIsAfter(userId, now, pageable)
                     : bookingRepository.findByBookerIdAndStartDateIsAfter(userId, now, pageable);
@@ -135,6 +263,29 @@ public class BookingServiceImpl implements BookingService {
         };
     }
 
+    private Page<Booking> findPastBookings(Long userId, boolean isOwner, LocalDateTime now, Pageable pageable) {
+        return isOwner
+                ? bookingRepository.findByItemOwnerIdAndEndDateIsBefore(userId, now, pageable)
+                : bookingRepository.findByBookerIdAndEndDateIsBefore(userId, now, pageable);
+    }
+
+    private Page<Booking> findPastBookingsWithArchive(Long userId, boolean isOwner, LocalDateTime now,
+                                                      Pageable pageable) {
+        // Обе выборки отсортированы одинаково, для нужной страницы хватает первых offset + size строк каждой
+        Pageable head = PageRequest.of(0, (int) pageable.getOffset() + pageable.getPageSize(), pageable.getSort());
+        Page<Booking> live = findPastBookings(userId, isOwner, now, head);
+        Page<ArchivedBooking> archived = isOwner
+                ? archivedBookingRepository.findByItemOwnerIdAndEndDateIsBefore(userId, now, head)
+                : archivedBookingRepository.findByBookerIdAndEndDateIsBefore(userId, now, head);
+
+        List<Booking> page = Stream.concat(live.stream(), archived.stream().map(BookingMapper::toBooking))
+                .sorted(Comparator.comparing(Booking::getStartDate).reversed())
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+        return new PageImpl<>(page, pageable, live.getTotalElements() + archived.getTotalElements());
+    }
+
     private boolean isBookerOrOwner(Booking booking, Long userId) {
         return booking.getBooker().getId().equals(userId) || booking.getItem().getOwner().getId().equals(userId);
     }
@@ -143,7 +294,12 @@ public class BookingServiceImpl implements BookingService {
         if (!userRepository.existsById(userId)) throw new NotFoundException(String.format(USER_NOT_FOUND_ERR, userId));
     }
 
-    private BookingState parseState(String state) {
+    // Размер страницы ограничивается и здесь, чтобы вызовы в обход контроллера не читали все бронирования
+    static int pageSize(int size) {
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    static BookingState parseState(String state) {
         try {
             return BookingState.valueOf(state.toUpperCase());
         } catch (IllegalArgumentException e) {
@@ -152,8 +308,12 @@ public class BookingServiceImpl implements BookingService {
     }
 
     private Collection<BookingDtoResponse> mapToDtoResponse(Collection<Booking> bookings) {
+        return mapToDtoResponse(bookings, FieldSet.ALL);
+    }
+
+    private Collection<BookingDtoResponse> mapToDtoResponse(Collection<Booking> bookings, FieldSet fields) {
         return bookings.stream()
-                .map(BookingMapper::toBookingDtoResponse)
+                .map(booking -> toBookingDtoResponse(booking, fields))
                 .toList();
     }
 }
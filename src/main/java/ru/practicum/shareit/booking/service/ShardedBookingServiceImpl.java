@@ -0,0 +1,199 @@
+package ru.practicum.shareit.booking.service;
+
+import ru.practicum.shareit.booking.archive.ArchivedBooking;
+import ru.practicum.shareit.booking.archive.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.archive.BookingArchiveProperties;
+import ru.practicum.shareit.booking.dto.*;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.shard.BookingShardOutbox;
+import ru.practicum.shareit.booking.shard.BookingShardReconciler;
+import ru.practicum.shareit.booking.shard.BookingShardRow;
+import ru.practicum.shareit.booking.shard.ShardedBookingStore;
+import ru.practicum.shareit.common.FieldSet;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.jfr.BookingOperationEvent;
+import ru.practicum.shareit.user.UserMapper;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static ru.practicum.shareit.booking.service.BookingServiceImpl.*;
+
+/**
+ * Включается свойством shareit.booking.sharding.enabled. Основная база остаётся источником истины:
+ * изменения бронирований ставятся в очередь booking_shard_outbox в той же транзакции и переносятся
+ * в шарды BookingShardRelay. Списки бронирований читаются из шардов с теми же правилами, что и без них,
+ * после того как BookingShardReconciler сверил шарды с основной базой.
+ */
+@Slf4j
+@Primary
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+@ConditionalOnProperty(prefix = "shareit.booking.sharding", name = "enabled", havingValue = "true")
+public class ShardedBookingServiceImpl implements BookingService {
+    private final BookingServiceImpl bookingService;
+    private final ShardedBookingStore shardedBookingStore;
+    private final BookingShardOutbox shardOutbox;
+    private final BookingShardReconciler shardReconciler;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final BookingArchiveProperties archiveProperties;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+
+    @Override
+    @Transactional
+    public BookingDtoResponse createBooking(Long userId, BookingDto bookingDto) {
+        BookingDtoResponse booking = bookingService.createBooking(userId, bookingDto);
+        shardOutbox.enqueue(booking.getId());
+        return booking;
+    }
+
+    @Override
+    @Transactional
+    public BookingDtoResponse updateBookingStatus(Long userId, Long bookingId, boolean isApproved) {
+        BookingDtoResponse booking = bookingService.updateBookingStatus(userId, bookingId, isApproved);
+        shardOutbox.enqueue(bookingId);
+        return booking;
+    }
+
+    @Override
+    public BookingDtoResponse getBooking(Long userId, Long bookingId) {
+        return bookingService.getBooking(userId, bookingId);
+    }
+
+    @Override
+    public Optional<String> getBookingETag(Long userId, Long bookingId) {
+        return bookingService.getBookingETag(userId, bookingId);
+    }
+
+    @Override
+    public Collection<BookingDtoResponse> getUserBookings(Long userId, String state, int from, int size) {
+        return getUserBookings(userId, state, from, size, FieldSet.ALL);
+    }
+
+    @Override
+    public Collection<BookingDtoResponse> getUserBookings(Long userId, String state, int from, int size,
+                                                          FieldSet fields) {
+        // До завершения сверки в шардах может не хватать бронирований
+        if (!shardReconciler.isReconciled()) return bookingService.getUserBookings(userId, state, from, size, fields);
+        return findBookings(userId, state, false, from, size, fields);
+    }
+
+    @Override
+    public Collection<BookingDtoResponse> getOwnerBookings(Long userId, String state, int from, int size) {
+        return getOwnerBookings(userId, state, from, size, FieldSet.ALL);
+    }
+
+    @Override
+    public Collection<BookingDtoResponse> getOwnerBookings(Long userId, String state, int from, int size,
+                                                           FieldSet fields) {
+        if (!shardReconciler.isReconciled()) return bookingService.getOwnerBookings(userId, state, from, size, fields);
+        return findBookings(userId, state, true, from, size, fields);
+    }
+
+    @Override
+    public Collection<BookingStateSummaryDto> getOwnerBookingsSummary(Long userId, int size) {
+        return bookingService.getOwnerBookingsSummary(userId, size);
+    }
+
+    private Collection<BookingDtoResponse> findBookings(Long userId, String state, boolean isOwner,
+                                                        int from, int size, FieldSet fields) {
+        checkUserExists(userId);
+        BookingState bookingState = parseState(state);
+        LocalDateTime now = LocalDateTime.now();
+        int limit = pageSize(size);
+
+        BookingOperationEvent event = new BookingOperationEvent();
+        event.begin();
+        List<BookingShardRow> rows = bookingState == BookingState.PAST && archiveProperties.isEnabled()
+                ? findPastWithArchive(userId, isOwner, now, from, limit)
+                : findInShards(userId, bookingState, isOwner, now, from, limit);
+        commitFindEvent(event, userId, bookingState, isOwner, rows.size());
+
+        return toDtoResponses(rows, fields);
+    }
+
+    private List<BookingShardRow> findInShards(Long userId, BookingState state, boolean isOwner,
+                                               LocalDateTime now, int from, int size) {
+        return isOwner
+                ? shardedBookingStore.findByOwner(userId, state, now, from, size)
+                : shardedBookingStore.findByBooker(userId, state, now, from, size);
+    }
+
+    private List<BookingShardRow> findPastWithArchive(Long userId, boolean isOwner, LocalDateTime now,
+                                                      int from, int size) {
+        // Как и без шардов, для страницы хватает первых from + size строк каждой выборки. Ушедшее в архив
+        // бронирование остаётся в шарде, пока его не удалит перенос, и берётся один раз
+        Pageable head = PageRequest.of(0, from + size, Sort.by(Sort.Direction.DESC, "startDate"));
+        List<BookingShardRow> live = findInShards(userId, BookingState.PAST, isOwner, now, 0, from + size);
+        Page<ArchivedBooking> archived = isOwner
+                ? archivedBookingRepository.findByItemOwnerIdAndEndDateIsBefore(userId, now, head)
+                : archivedBookingRepository.findByBookerIdAndEndDateIsBefore(userId, now, head);
+
+        return Stream.concat(live.stream(), archived.stream().map(ShardedBookingServiceImpl::toRow))
+                .collect(Collectors.toMap(BookingShardRow::id, row -> row, (row, duplicate) -> row,
+                        LinkedHashMap::new))
+                .values().stream()
+                .sorted(ShardedBookingStore.NEWEST_FIRST)
+                .skip(from)
+                .limit(size)
+                .toList();
+    }
+
+    private static BookingShardRow toRow(ArchivedBooking booking) {
+        return new BookingShardRow(booking.getId(), booking.getItem().getId(), null, booking.getBooker().getId(),
+                booking.getStartDate(), booking.getEndDate(), booking.getStatus(), null);
+    }
+
+    private void checkUserExists(Long userId) {
+        if (!userRepository.existsById(userId)) throw new NotFoundException(String.format(USER_NOT_FOUND_ERR, userId));
+    }
+
+    private Collection<BookingDtoResponse> toDtoResponses(List<BookingShardRow> rows, FieldSet fields) {
+        if (rows.isEmpty()) return List.of();
+
+        // Вещи и пользователи подгружаются из основной базы пачкой, по одному запросу на таблицу
+        Map<Long, ItemDto> items = !fields.includes("item") ? Map.of() : itemRepository.findAllById(
+                        rows.stream().map(BookingShardRow::itemId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Item::getId, ItemMapper::toItemDto));
+        Map<Long, UserDto> bookers = !fields.includes("booker") ? Map.of() : userRepository.findAllById(
+                        rows.stream().map(BookingShardRow::bookerId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(User::getId, UserMapper::toUserDto));
+
+        return rows.stream()
+                .map(row -> BookingDtoResponse.builder()
+                        .id(row.id())
+                        .item(items.get(row.itemId()))
+                        .start(row.startDate())
+                        .end(row.endDate())
+                        .booker(bookers.get(row.bookerId()))
+                        .status(row.status())
+                        .build())
+                .toList();
+    }
+}
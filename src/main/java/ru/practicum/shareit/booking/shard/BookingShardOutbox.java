@@ -0,0 +1,28 @@
+package ru.practicum.shareit.booking.shard;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Ставит изменённые бронирования в очередь на перенос в шарды. Вызывается внутри транзакции,
+ * изменяющей бронирование.
+ */
+@RequiredArgsConstructor
+public class BookingShardOutbox {
+    private final BookingShardOutboxRepository outboxRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public void enqueue(Long bookingId) {
+        outboxRepository.save(new BookingShardOutboxEntry(bookingId));
+        eventPublisher.publishEvent(new BookingShardOutboxEvent());
+    }
+
+    // Вызываются до удаления: после него каскад уже унёс бронирования, и удалять из шардов будет нечего
+    public void enqueueItemBookings(Long itemId) {
+        if (outboxRepository.enqueueByItemId(itemId) > 0) eventPublisher.publishEvent(new BookingShardOutboxEvent());
+    }
+
+    public void enqueueUserBookings(Long userId) {
+        if (outboxRepository.enqueueByUserId(userId) > 0) eventPublisher.publishEvent(new BookingShardOutboxEvent());
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.booking.shard;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Бронирование, изменение которого ещё не перенесено в шарды. Запись добавляется в той же
+ * транзакции, что и изменение в основной базе, поэтому ни одно зафиксированное изменение не теряется.
+ */
+@Entity
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@Table(name = "booking_shard_outbox")
+public class BookingShardOutboxEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long bookingId;
+
+    public BookingShardOutboxEntry(Long bookingId) {
+        this.bookingId = bookingId;
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.booking.shard;
+
+/**
+ * Публикуется при добавлении записей в очередь шардов, чтобы перенести их сразу после фиксации,
+ * не дожидаясь планового прохода.
+ */
+public record BookingShardOutboxEvent() {
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.booking.shard;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface BookingShardOutboxRepository extends JpaRepository<BookingShardOutboxEntry, Long> {
+    List<BookingShardOutboxEntry> findByOrderByIdAsc(Pageable pageable);
+
+    // Бронирования, которые удалит каскад вместе с вещью
+    @Modifying
+    @Query(value = "insert into booking_shard_outbox (booking_id) " +
+            "select b.id from bookings b where b.item_id = :itemId", nativeQuery = true)
+    int enqueueByItemId(@Param("itemId") Long itemId);
+
+    // Бронирования, которые удалит каскад вместе с пользователем: его собственные, бронирования его вещей
+    // и вещей, созданных по его запросам
+    @Modifying
+    @Query(value = "insert into booking_shard_outbox (booking_id) " +
+            "select b.id from bookings b join items i on i.id = b.item_id " +
+            "where b.booker_id = :userId or i.owner_id = :userId " +
+            "or i.request_id in (select r.id from requests r where r.requestor_id = :userId)", nativeQuery = true)
+    int enqueueByUserId(@Param("userId") Long userId);
+}
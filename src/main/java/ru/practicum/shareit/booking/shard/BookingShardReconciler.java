@@ -0,0 +1,102 @@
+package ru.practicum.shareit.booking.shard;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Сверяет шарды с основной базой: копирует в них все бронирования и удаляет строки, которых в основной
+ * базе уже нет. Очередь booking_shard_outbox видит только изменения через сервис, поэтому без сверки
+ * шарды не знают о бронированиях, созданных до включения шардирования или загруженных DatasetLoader.
+ * Пока сверка не завершена, списки бронирований читаются из основной базы.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class BookingShardReconciler {
+    private static final String LOAD_BATCH = "select b.id, b.item_id, i.owner_id, b.booker_id, " +
+            "b.start_date, b.end_date, b.status, b.version " +
+            "from bookings b join items i on i.id = b.item_id where b.id > :afterId order by b.id limit :limit";
+    private static final String EXISTING_IDS = "select id from bookings where id in (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ShardedBookingStore shardedBookingStore;
+    private final BookingShardingProperties properties;
+    private volatile boolean reconciled;
+
+    public boolean isReconciled() {
+        return reconciled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcileIfNeeded();
+    }
+
+    // Если сверка при запуске не удалась, например шард был недоступен, она повторяется
+    @Scheduled(initialDelayString = "${shareit.booking.sharding.reconcile-retry-delay:1m}",
+            fixedDelayString = "${shareit.booking.sharding.reconcile-retry-delay:1m}")
+    public void reconcileIfNeeded() {
+        if (reconciled) return;
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.error("Не удалось сверить шарды бронирований, списки читаются из основной базы: {}",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Полная сверка. На время её выполнения чтение переключается на основную базу.
+     */
+    public synchronized long reconcile() {
+        reconciled = false;
+        long copied = copyBookings();
+        long removed = removeMissing();
+        reconciled = true;
+        log.info("Шарды сверены с основной базой: скопировано {} бронирований, удалено {} лишних", copied, removed);
+        return copied;
+    }
+
+    private long copyBookings() {
+        long copied = 0;
+        long afterId = 0;
+        List<BookingShardRow> rows;
+        do {
+            rows = jdbcTemplate.query(LOAD_BATCH,
+                    Map.of("afterId", afterId, "limit", properties.getReconcileBatchSize()),
+                    ShardedBookingStore.ROW_MAPPER);
+            if (rows.isEmpty()) break;
+            shardedBookingStore.upsertAll(rows);
+            copied += rows.size();
+            afterId = rows.get(rows.size() - 1).id();
+        } while (rows.size() == properties.getReconcileBatchSize());
+        return copied;
+    }
+
+    // Строки, удалённые в обход очереди, например каскадом до появления её записей
+    private long removeMissing() {
+        long removed = 0;
+        for (int shard = 0; shard < shardedBookingStore.shardCount(); shard++) {
+            long afterId = 0;
+            List<Long> ids;
+            do {
+                ids = shardedBookingStore.findIds(shard, afterId, properties.getReconcileBatchSize());
+                if (ids.isEmpty()) break;
+                Set<Long> missing = new HashSet<>(ids);
+                missing.removeAll(jdbcTemplate.queryForList(EXISTING_IDS, Map.of("ids", ids), Long.class));
+                shardedBookingStore.deleteAll(shard, missing);
+                removed += missing.size();
+                afterId = ids.get(ids.size() - 1);
+            } while (ids.size() == properties.getReconcileBatchSize());
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.booking.shard;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Переносит в шарды бронирования из очереди booking_shard_outbox: существующие в основной базе
+ * записываются в шард владельца в текущем состоянии, удалённые и ушедшие в архив удаляются из шардов.
+ * Запись из очереди удаляется только после успешного переноса, при сбое шарда она повторится.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class BookingShardRelay {
+    private static final String LOAD_BOOKINGS = "select b.id, b.item_id, i.owner_id, b.booker_id, " +
+            "b.start_date, b.end_date, b.status, b.version " +
+            "from bookings b join items i on i.id = b.item_id where b.id in (:ids)";
+
+    private final BookingShardOutboxRepository outboxRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardedBookingStore shardedBookingStore;
+    private final BookingShardingProperties properties;
+
+    @Scheduled(fixedDelayString = "${shareit.booking.sharding.relay-delay:1s}")
+    public void relayScheduled() {
+        relay();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEnqueued(BookingShardOutboxEvent event) {
+        try {
+            relay();
+        } catch (RuntimeException e) {
+            // Запись осталась в очереди и будет перенесена плановым проходом
+            log.warn("Не удалось перенести бронирования в шарды: {}", e.getMessage());
+        }
+    }
+
+    public int relay() {
+        int total = 0;
+        int relayed;
+        do {
+            // Отдельная транзакция: после фиксации транзакции, опубликовавшей событие, писать в ней уже нельзя
+            Integer batch = transactionTemplate.execute(status -> relayBatch());
+            relayed = batch != null ? batch : 0;
+            total += relayed;
+        } while (relayed == properties.getRelayBatchSize());
+        return total;
+    }
+
+    private int relayBatch() {
+        List<BookingShardOutboxEntry> entries = outboxRepository.findByOrderByIdAsc(
+                PageRequest.of(0, properties.getRelayBatchSize()));
+        if (entries.isEmpty()) return 0;
+
+        Set<Long> bookingIds = entries.stream().map(BookingShardOutboxEntry::getBookingId).collect(Collectors.toSet());
+        Map<Long, BookingShardRow> rows = jdbcTemplate.query(LOAD_BOOKINGS, Map.of("ids", bookingIds),
+                        ShardedBookingStore.ROW_MAPPER)
+                .stream()
+                .collect(Collectors.toMap(BookingShardRow::id, Function.identity()));
+
+        for (Long bookingId : bookingIds) {
+            BookingShardRow row = rows.get(bookingId);
+            if (row != null) {
+                shardedBookingStore.upsert(row);
+            } else {
+                shardedBookingStore.delete(bookingId);
+            }
+        }
+        outboxRepository.deleteAllByIdInBatch(entries.stream().map(BookingShardOutboxEntry::getId).toList());
+        log.debug("Перенесено в шарды {} бронирований", bookingIds.size());
+        return entries.size();
+    }
+}
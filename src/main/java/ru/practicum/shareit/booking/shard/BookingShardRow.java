@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.shard;
+
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+
+public record BookingShardRow(
+        Long id,
+        Long itemId,
+        Long ownerId,
+        Long bookerId,
+        LocalDateTime startDate,
+        LocalDateTime endDate,
+        BookingStatus status,
+        Long version
+) {
+}
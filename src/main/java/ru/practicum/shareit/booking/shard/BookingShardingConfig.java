@@ -0,0 +1,77 @@
+package ru.practicum.shareit.booking.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(BookingShardingProperties.class)
+@ConditionalOnProperty(prefix = "shareit.booking.sharding", name = "enabled", havingValue = "true")
+public class BookingShardingConfig {
+    private static final String SHARD_SCHEMA = "booking-shard-schema.sql";
+
+    @Bean(destroyMethod = "close")
+    public ShardedBookingStore shardedBookingStore(BookingShardingProperties properties) {
+        List<DataSource> dataSources = new ArrayList<>();
+        for (int i = 0; i < properties.getShards().size(); i++) {
+            dataSources.add(createShard(properties.getShards().get(i), i));
+        }
+        return new ShardedBookingStore(dataSources);
+    }
+
+    @Bean
+    public BookingShardOutbox bookingShardOutbox(BookingShardOutboxRepository outboxRepository,
+                                                 ApplicationEventPublisher eventPublisher) {
+        return new BookingShardOutbox(outboxRepository, eventPublisher);
+    }
+
+    @Bean
+    public BookingShardRelay bookingShardRelay(BookingShardOutboxRepository outboxRepository,
+                                               NamedParameterJdbcTemplate jdbcTemplate,
+                                               PlatformTransactionManager transactionManager,
+                                               ShardedBookingStore shardedBookingStore,
+                                               BookingShardingProperties properties) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return new BookingShardRelay(outboxRepository, jdbcTemplate, transactionTemplate, shardedBookingStore,
+                properties);
+    }
+
+    @Bean
+    public BookingShardReconciler bookingShardReconciler(NamedParameterJdbcTemplate jdbcTemplate,
+                                                         ShardedBookingStore shardedBookingStore,
+                                                         BookingShardingProperties properties) {
+        return new BookingShardReconciler(jdbcTemplate, shardedBookingStore, properties);
+    }
+
+    private static DataSource createShard(BookingShardingProperties.Shard shard, int index) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(shard.getUrl())
+                .username(shard.getUsername())
+                .password(shard.getPassword())
+                .driverClassName(shard.getDriverClassName())
+                .build();
+        dataSource.setPoolName("booking-shard-" + index);
+        dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+        DatabasePopulatorUtils.execute(new ResourceDatabasePopulator(new ClassPathResource(SHARD_SCHEMA)), dataSource);
+        return dataSource;
+    }
+}
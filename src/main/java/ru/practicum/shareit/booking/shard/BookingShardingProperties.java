@@ -0,0 +1,39 @@
+package ru.practicum.shareit.booking.shard;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.booking.sharding")
+public class BookingShardingProperties {
+    private boolean enabled = false;
+
+    private List<Shard> shards = new ArrayList<>();
+
+    // Пауза между плановыми проходами очереди booking_shard_outbox
+    private Duration relayDelay = Duration.ofSeconds(1);
+
+    private int relayBatchSize = 500;
+
+    // Размер пачки при сверке шардов с основной базой
+    private int reconcileBatchSize = 5000;
+
+    // Пауза перед повтором сверки, если она не удалась
+    private Duration reconcileRetryDelay = Duration.ofMinutes(1);
+
+    @Getter
+    @Setter
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        private int maximumPoolSize = 5;
+    }
+}
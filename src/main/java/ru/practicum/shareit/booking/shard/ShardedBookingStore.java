@@ -0,0 +1,230 @@
+package ru.practicum.shareit.booking.shard;
+
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Бронирования, распределённые по нескольким базам по id владельца вещи.
+ * Запросы владельца идут в один шард, запросы автора брони опрашивают все шарды
+ * и сливают результаты в порядке startDate DESC.
+ */
+@Slf4j
+public class ShardedBookingStore implements AutoCloseable {
+    public static final Comparator<BookingShardRow> NEWEST_FIRST = Comparator
+            .comparing(BookingShardRow::startDate, Comparator.reverseOrder())
+            .thenComparing(BookingShardRow::id, Comparator.reverseOrder());
+
+    private static final String COLUMNS = "id, item_id, owner_id, booker_id, start_date, end_date, status, version";
+    private static final String INSERT_IF_ABSENT = "insert into bookings (" + COLUMNS + ") " +
+            "select ?, ?, ?, ?, ?, ?, ?, ? where not exists (select 1 from bookings where id = ?)";
+    private static final String UPDATE_IF_OLDER = "update bookings set item_id = ?, owner_id = ?, booker_id = ?, " +
+            "start_date = ?, end_date = ?, status = ?, version = ? where id = ? and version < ?";
+    static final RowMapper<BookingShardRow> ROW_MAPPER = (rs, rowNum) -> new BookingShardRow(
+            rs.getLong("id"),
+            rs.getLong("item_id"),
+            rs.getLong("owner_id"),
+            rs.getLong("booker_id"),
+            rs.getTimestamp("start_date").toLocalDateTime(),
+            rs.getTimestamp("end_date").toLocalDateTime(),
+            BookingStatus.valueOf(rs.getString("status")),
+            rs.getLong("version")
+    );
+
+    private final List<DataSource> dataSources;
+    private final List<JdbcTemplate> shards;
+    private final ExecutorService executor;
+
+    public ShardedBookingStore(List<DataSource> dataSources) {
+        if (dataSources.isEmpty()) throw new IllegalArgumentException("Не задано ни одного шарда бронирований");
+        this.dataSources = List.copyOf(dataSources);
+        this.shards = dataSources.stream().map(JdbcTemplate::new).toList();
+        this.executor = Executors.newFixedThreadPool(dataSources.size(), r -> {
+            Thread thread = new Thread(r, "booking-shard-query");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    public int shardFor(Long ownerId) {
+        return Math.floorMod(ownerId, shards.size());
+    }
+
+    /**
+     * Записывает строку в шард владельца, если там её нет или она старее. Проверка версии делает
+     * повторный и запоздалый перенос одного изменения безвредным.
+     */
+    public void upsert(BookingShardRow row) {
+        JdbcTemplate shard = shards.get(shardFor(row.ownerId()));
+        if (updateIfOlder(shard, row)) return;
+        try {
+            shard.update("insert into bookings (" + COLUMNS + ") values (?, ?, ?, ?, ?, ?, ?, ?)",
+                    row.id(), row.itemId(), row.ownerId(), row.bookerId(),
+                    Timestamp.valueOf(row.startDate()), Timestamp.valueOf(row.endDate()), row.status().name(),
+                    row.version());
+        } catch (DuplicateKeyException e) {
+            // Строку только что вставил параллельный перенос, сравниваем версии ещё раз
+            updateIfOlder(shard, row);
+        }
+    }
+
+    /**
+     * Пачечный upsert для сверки с основной базой: отсутствующие строки вставляются, более старые обновляются.
+     */
+    public void upsertAll(List<BookingShardRow> rows) {
+        Map<Integer, List<BookingShardRow>> byShard = new HashMap<>();
+        for (BookingShardRow row : rows) {
+            byShard.computeIfAbsent(shardFor(row.ownerId()), index -> new ArrayList<>()).add(row);
+        }
+        byShard.forEach((index, shardRows) -> {
+            JdbcTemplate shard = shards.get(index);
+            try {
+                shard.batchUpdate(INSERT_IF_ABSENT, shardRows, shardRows.size(), (ps, row) -> {
+                    setRow(ps, row);
+                    ps.setLong(9, row.id());
+                });
+                shard.batchUpdate(UPDATE_IF_OLDER, shardRows, shardRows.size(), (ps, row) -> {
+                    ps.setLong(1, row.itemId());
+                    ps.setLong(2, row.ownerId());
+                    ps.setLong(3, row.bookerId());
+                    ps.setTimestamp(4, Timestamp.valueOf(row.startDate()));
+                    ps.setTimestamp(5, Timestamp.valueOf(row.endDate()));
+                    ps.setString(6, row.status().name());
+                    ps.setLong(7, row.version());
+                    ps.setLong(8, row.id());
+                    ps.setLong(9, row.version());
+                });
+            } catch (DuplicateKeyException e) {
+                // Часть строк одновременно вставил перенос из очереди, пачка переносится по одной строке
+                shardRows.forEach(this::upsert);
+            }
+        });
+    }
+
+    // id строк шарда по возрастанию, начиная после afterId: сверка обходит шард пачками
+    public List<Long> findIds(int shard, long afterId, int limit) {
+        return shards.get(shard).queryForList("select id from bookings where id > ? order by id limit ?",
+                Long.class, afterId, limit);
+    }
+
+    public void deleteAll(int shard, Collection<Long> bookingIds) {
+        if (bookingIds.isEmpty()) return;
+        shards.get(shard).batchUpdate("delete from bookings where id = ?",
+                bookingIds.stream().map(id -> new Object[]{id}).toList());
+    }
+
+    public void delete(Long bookingId) {
+        // Владелец удалённого бронирования уже неизвестен, а удаления редки, поэтому опрашиваются все шарды
+        for (JdbcTemplate shard : shards) {
+            shard.update("delete from bookings where id = ?", bookingId);
+        }
+    }
+
+    public List<BookingShardRow> findByOwner(Long ownerId, BookingState state, LocalDateTime now,
+                                             int from, int size) {
+        return query(shards.get(shardFor(ownerId)), "owner_id", ownerId, state, now, from, size);
+    }
+
+    public List<BookingShardRow> findByBooker(Long bookerId, BookingState state, LocalDateTime now,
+                                              int from, int size) {
+        // Каждый шард отдаёт свои первые from + size строк, глобальная страница получается слиянием
+        List<CompletableFuture<List<BookingShardRow>>> futures = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(
+                        () -> query(shard, "booker_id", bookerId, state, now, 0, from + size), executor))
+                .toList();
+
+        List<BookingShardRow> merged = new ArrayList<>();
+        for (CompletableFuture<List<BookingShardRow>> future : futures) {
+            merged.addAll(future.join());
+        }
+        merged.sort(NEWEST_FIRST);
+
+        if (from >= merged.size()) return List.of();
+        return List.copyOf(merged.subList(from, Math.min(merged.size(), from + size)));
+    }
+
+    private List<BookingShardRow> query(JdbcTemplate shard, String userColumn, Long userId, BookingState state,
+                                        LocalDateTime now, int offset, int limit) {
+        StringBuilder sql = new StringBuilder("select ").append(COLUMNS)
+                .append(" from bookings where ").append(userColumn).append(" = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(userId);
+
+        Timestamp timestamp = Timestamp.valueOf(now);
+        switch (state) {
+            case CURRENT -> {
+                sql.append(" and start_date < ? and end_date > ?");
+                args.add(timestamp);
+                args.add(timestamp);
+            }
+            case PAST -> {
+                sql.append(" and end_date < ?");
+                args.add(timestamp);
+            }
+            case FUTURE -> {
+                sql.append(" and start_date > ?");
+                args.add(timestamp);
+            }
+            case WAITING, REJECTED -> {
+                sql.append(" and status = ?");
+                args.add(state.name());
+            }
+            case ALL -> {
+            }
+        }
+
+        sql.append(" order by start_date desc, id desc limit ? offset ?");
+        args.add(limit);
+        args.add(offset);
+        return shard.query(sql.toString(), ROW_MAPPER, args.toArray());
+    }
+
+    private static void setRow(PreparedStatement ps, BookingShardRow row) throws SQLException {
+        ps.setLong(1, row.id());
+        ps.setLong(2, row.itemId());
+        ps.setLong(3, row.ownerId());
+        ps.setLong(4, row.bookerId());
+        ps.setTimestamp(5, Timestamp.valueOf(row.startDate()));
+        ps.setTimestamp(6, Timestamp.valueOf(row.endDate()));
+        ps.setString(7, row.status().name());
+        ps.setLong(8, row.version());
+    }
+
+    private static boolean updateIfOlder(JdbcTemplate shard, BookingShardRow row) {
+        return shard.update(UPDATE_IF_OLDER, row.itemId(), row.ownerId(), row.bookerId(),
+                Timestamp.valueOf(row.startDate()), Timestamp.valueOf(row.endDate()), row.status().name(),
+                row.version(), row.id(), row.version()) > 0;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Не удалось закрыть шард бронирований: {}", e.getMessage());
+                }
+            }
+        }
+    }
+}
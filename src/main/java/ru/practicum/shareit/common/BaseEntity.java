@@ -0,0 +1,44 @@
+package ru.practicum.shareit.common;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.PrePersist;
+import lombok.Setter;
+import org.hibernate.Hibernate;
+
+import java.util.UUID;
+
+/**
+ * Общий предок сущностей с естественным ключом uuid. Ключ назначается приложением до сохранения,
+ * а не базой, поэтому equals и hashCode одинаковы до persist, после него и у копий строки,
+ * загруженных в разных сессиях.
+ */
+@MappedSuperclass
+public abstract class BaseEntity {
+    @Setter
+    @Column(nullable = false, updatable = false)
+    private UUID uuid;
+
+    // У загруженной сущности ключ уже прочитан из базы, новой он выдаётся при первом обращении
+    public UUID getUuid() {
+        if (uuid == null) uuid = UUID.randomUUID();
+        return uuid;
+    }
+
+    @PrePersist
+    void assignUuid() {
+        getUuid();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BaseEntity other) || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        return getUuid().equals(other.getUuid());
+    }
+
+    @Override
+    public int hashCode() {
+        return getUuid().hashCode();
+    }
+}
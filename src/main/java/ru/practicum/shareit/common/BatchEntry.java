@@ -0,0 +1,34 @@
+package ru.practicum.shareit.common;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Результат пакетного запроса по одному id: найденное значение либо текст ошибки.
+ */
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchEntry<T> {
+    public static final int MAX_IDS = 100;
+
+    private Long id;
+    private T value;
+    private String error;
+
+    // Записи идут в порядке запрошенных id, отсутствующие помечаются ошибкой
+    public static <T> List<BatchEntry<T>> of(Collection<Long> ids, Map<Long, T> found,
+                                             Function<Long, String> missingError) {
+        return ids.stream()
+                .map(id -> found.containsKey(id)
+                        ? new BatchEntry<>(id, found.get(id), null)
+                        : new BatchEntry<T>(id, null, missingError.apply(id)))
+                .toList();
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.common;
+
+import ru.practicum.shareit.exception.PreconditionFailedException;
+
+/**
+ * Разбор меток, которые выдают GET-запросы вещей и пользователей: "3" у пользователя, "3.2.15.1.0.0.0" или
+ * "3.2.15.1.0.0.0-owner" у вещи. Номер версии стоит первым, за ним у вещи идёт сводка по бронированиям и отзывам.
+ */
+public final class ETags {
+    public static final String ANY = "*";
+    public static final String PREFER = "Prefer";
+    public static final String RETURN_MINIMAL = "return=minimal";
+
+    private ETags() {
+    }
+
+    public static long parseVersion(String eTag) {
+        String tag = unquote(eTag);
+        try {
+            return Long.parseLong(tag.substring(0, versionEnd(tag)));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("Некорректная метка версии: " + eTag);
+        }
+    }
+
+    // Новая метка в том же виде, что и присланная: номер версии меняется, остальное сохраняется
+    public static String nextVersion(String eTag, long version) {
+        String tag = unquote(eTag);
+        return "\"" + version + tag.substring(versionEnd(tag)) + "\"";
+    }
+
+    public static boolean isMinimalReturnPreferred(String prefer) {
+        return prefer != null && prefer.contains(RETURN_MINIMAL);
+    }
+
+    private static int versionEnd(String tag) {
+        int end = 0;
+        while (end < tag.length() && tag.charAt(end) != '.' && tag.charAt(end) != '-') end++;
+        return end;
+    }
+
+    private static String unquote(String eTag) {
+        String tag = eTag.trim();
+        if (tag.startsWith("W/")) tag = tag.substring(2);
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) tag = tag.substring(1, tag.length() - 1);
+        return tag;
+    }
+}
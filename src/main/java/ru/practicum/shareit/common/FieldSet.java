@@ -0,0 +1,42 @@
+package ru.practicum.shareit.common;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Набор полей из параметра fields. names == null означает все поля.
+ */
+public record FieldSet(Set<String> names) {
+    public static final String FILTER = "fields";
+    public static final FieldSet ALL = new FieldSet(null);
+
+    public static FieldSet parse(String fields) {
+        if (fields == null || fields.isBlank()) return ALL;
+        return new FieldSet(Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toUnmodifiableSet()));
+    }
+
+    public boolean includes(String name) {
+        return names == null || names.contains(name);
+    }
+
+    public boolean includesAny(String... candidates) {
+        return Arrays.stream(candidates).anyMatch(this::includes);
+    }
+
+    // Оборачивает ответ так, чтобы Jackson записал только запрошенные поля
+    public MappingJacksonValue apply(Object value) {
+        MappingJacksonValue wrapper = new MappingJacksonValue(value);
+        wrapper.setFilters(new SimpleFilterProvider().addFilter(FILTER, names == null
+                ? SimpleBeanPropertyFilter.serializeAll()
+                : SimpleBeanPropertyFilter.filterOutAllExcept(names)));
+        return wrapper;
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.common;
+
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.item.dto.ItemDtoResponse;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Фильтр полей подключается через mixin, чтобы не трогать сами DTO.
+ * Без параметра fields фильтр по умолчанию пропускает все поля.
+ */
+@Configuration
+public class FieldSetJacksonConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer fieldSetCustomizer() {
+        return builder -> builder
+                .mixIn(ItemDtoResponse.class, FieldFilterMixin.class)
+                .mixIn(BookingDtoResponse.class, FieldFilterMixin.class)
+                .filters(new SimpleFilterProvider().addFilter(FieldSet.FILTER, SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    @JsonFilter(FieldSet.FILTER)
+    private interface FieldFilterMixin {
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.dataset;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+/**
+ * Вставка через JDBC batch с фиксацией после каждой пачки, чтобы журнал транзакции не рос
+ * на миллионах строк. Используется для H2 и других баз без COPY.
+ */
+class BatchTableWriter implements TableWriter {
+    private final Connection connection;
+    private final PreparedStatement statement;
+    private final int batchSize;
+    private int pending;
+
+    BatchTableWriter(Connection connection, int batchSize, String table, String... columns) throws SQLException {
+        this.connection = connection;
+        this.batchSize = batchSize;
+        this.statement = connection.prepareStatement("insert into " + table + " (" + String.join(", ", columns)
+                + ") values (" + String.join(", ", Collections.nCopies(columns.length, "?")) + ")");
+    }
+
+    @Override
+    public void row(Object... values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            statement.setObject(i + 1, value instanceof LocalDateTime time ? Timestamp.valueOf(time) : value);
+        }
+        statement.addBatch();
+        if (++pending == batchSize) flush();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            if (pending > 0) flush();
+        } finally {
+            statement.close();
+        }
+    }
+
+    private void flush() throws SQLException {
+        statement.executeBatch();
+        connection.commit();
+        pending = 0;
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.dataset;
+
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+/**
+ * Загрузка в PostgreSQL через COPY FROM STDIN в формате CSV. Строки копятся в буфере и уходят
+ * на сервер крупными кусками, вся таблица загружается одной командой COPY.
+ */
+class CopyTableWriter implements TableWriter {
+    private static final int FLUSH_SIZE = 1 << 16;
+
+    private final CopyIn copyIn;
+    private final StringBuilder buffer = new StringBuilder(FLUSH_SIZE + 1024);
+
+    CopyTableWriter(CopyManager copyManager, String table, String... columns) throws SQLException {
+        this.copyIn = copyManager.copyIn("copy " + table + " (" + String.join(", ", columns)
+                + ") from stdin with (format csv)");
+    }
+
+    @Override
+    public void row(Object... values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) buffer.append(',');
+            append(values[i]);
+        }
+        buffer.append('\n');
+        if (buffer.length() >= FLUSH_SIZE) flush();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (!copyIn.isActive()) return;
+        try {
+            flush();
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) copyIn.cancelCopy();
+        }
+    }
+
+    // Пустое значение без кавычек в CSV означает NULL, строки всегда в кавычках
+    private void append(Object value) {
+        if (value == null) return;
+        if (value instanceof String text) {
+            buffer.append('"').append(text.replace("\"", "\"\"")).append('"');
+        } else {
+            buffer.append(value);
+        }
+    }
+
+    private void flush() throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+}
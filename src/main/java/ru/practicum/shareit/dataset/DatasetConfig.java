@@ -0,0 +1,28 @@
+package ru.practicum.shareit.dataset;
+
+import ru.practicum.shareit.booking.shard.BookingShardReconciler;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+@EnableConfigurationProperties(DatasetProperties.class)
+public class DatasetConfig {
+
+    @Bean
+    public DatasetLoader datasetLoader(JdbcTemplate jdbcTemplate,
+                                       ObjectProvider<BookingShardReconciler> shardReconciler) {
+        return new DatasetLoader(jdbcTemplate, shardReconciler.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "shareit.dataset", name = "enabled", havingValue = "true")
+    public ApplicationRunner datasetRunner(DatasetLoader datasetLoader, DatasetProperties properties) {
+        return args -> datasetLoader.load(properties);
+    }
+}
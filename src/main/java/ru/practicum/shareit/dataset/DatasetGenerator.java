@@ -0,0 +1,157 @@
+package ru.practicum.shareit.dataset;
+
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Генератор синтетического набора: пользователи, запросы, вещи, бронирования и отзывы. Вещи
+ * распределены по владельцам, а бронирования и отзывы по вещам степенным законом, так что
+ * у немногих владельцев и вещей оказывается большая часть данных, как в живой базе.
+ * Идентификаторы назначаются явно, начиная после уже существующих.
+ */
+public class DatasetGenerator {
+    private static final List<String> NAMES = List.of("Дрель", "Перфоратор", "Шуруповёрт", "Лестница",
+            "Палатка", "Велосипед", "Самокат", "Проектор", "Пила", "Газонокосилка", "Байдарка", "Мангал",
+            "Спальник", "Удочка", "Компрессор", "Пылесос");
+    private static final List<String> QUALITIES = List.of("новая", "почти новая", "профессиональная",
+            "компактная", "лёгкая", "мощная", "надёжная", "б/у");
+    private static final int MAX_BOOKING_DAYS = 14;
+    private static final long UUID_PREFIX = 0x5eed_da7a_5e7L;
+
+    private final DatasetProperties properties;
+    private final LocalDateTime now;
+    private final SplittableRandom random;
+
+    public DatasetGenerator(DatasetProperties properties, LocalDateTime now) {
+        this.properties = properties;
+        this.now = now.truncatedTo(ChronoUnit.SECONDS);
+        this.random = new SplittableRandom(properties.getSeed());
+    }
+
+    /**
+     * Записывает набор таблица за таблицей в порядке внешних ключей и возвращает число строк.
+     */
+    public long generate(TableWriter.Factory tables, IdOffsets offsets) throws SQLException {
+        int[] itemOwners = new int[properties.getItems()];
+
+        users(tables, offsets);
+        requests(tables, offsets);
+        items(tables, offsets, itemOwners);
+        bookings(tables, offsets, itemOwners);
+        comments(tables, offsets, itemOwners);
+
+        return (long) properties.getUsers() + properties.getRequests() + properties.getItems()
+                + properties.getBookings() + properties.getComments();
+    }
+
+    private void users(TableWriter.Factory tables, IdOffsets offsets) throws SQLException {
+        try (TableWriter users = tables.open("users", "id", "uuid", "name", "email", "version")) {
+            for (int i = 1; i <= properties.getUsers(); i++) {
+                long id = offsets.users() + i;
+                users.row(id, uuid(id), "Пользователь " + id, "user" + id + "@dataset.shareit.ru", 0L);
+            }
+        }
+    }
+
+    private void requests(TableWriter.Factory tables, IdOffsets offsets) throws SQLException {
+        try (TableWriter requests = tables.open("requests", "id", "uuid", "description", "requestor_id")) {
+            for (int i = 1; i <= properties.getRequests(); i++) {
+                long id = offsets.requests() + i;
+                requests.row(id, uuid(id), "Ищу: " + pick(NAMES).toLowerCase(), user(offsets));
+            }
+        }
+    }
+
+    private void items(TableWriter.Factory tables, IdOffsets offsets, int[] itemOwners) throws SQLException {
+        ZipfSampler owners = new ZipfSampler(properties.getUsers(), properties.getOwnerSkew());
+        try (TableWriter items = tables.open("items",
+                "id", "uuid", "name", "description", "is_available", "owner_id", "request_id", "version")) {
+            for (int i = 0; i < properties.getItems(); i++) {
+                itemOwners[i] = owners.sample(random) + 1;
+                String name = pick(NAMES);
+                Long requestId = properties.getRequests() > 0 && random.nextDouble() < properties.getRequestedItemShare()
+                        ? offsets.requests() + 1 + random.nextInt(properties.getRequests())
+                        : null;
+                long id = offsets.items() + i + 1;
+                items.row(id, uuid(id), name, name + ", " + pick(QUALITIES),
+                        random.nextDouble() < properties.getAvailableItemShare(),
+                        offsets.users() + itemOwners[i], requestId, 0L);
+            }
+        }
+    }
+
+    private void bookings(TableWriter.Factory tables, IdOffsets offsets, int[] itemOwners) throws SQLException {
+        ZipfSampler hotItems = new ZipfSampler(properties.getItems(), properties.getItemSkew());
+        long historySeconds = properties.getHistory().toSeconds();
+        long spanSeconds = historySeconds + properties.getHorizon().toSeconds();
+        try (TableWriter bookings = tables.open("bookings",
+                "id", "uuid", "start_date", "end_date", "item_id", "booker_id", "status", "version")) {
+            for (int i = 1; i <= properties.getBookings(); i++) {
+                long id = offsets.bookings() + i;
+                int item = hotItems.sample(random);
+                // Микросекунды из id делают пару дат уникальной для популярной вещи, как требует
+                // ограничение (item_id, start_date, end_date)
+                LocalDateTime start = now.minusSeconds(historySeconds)
+                        .plusSeconds(random.nextLong(spanSeconds + 1))
+                        .plusNanos(id % 1_000_000 * 1_000);
+                LocalDateTime end = start.plusHours(1 + random.nextInt(MAX_BOOKING_DAYS * 24));
+                bookings.row(id, uuid(id), start, end, offsets.items() + item + 1,
+                        booker(offsets, itemOwners[item]), status(start).name(), 0L);
+            }
+        }
+    }
+
+    private void comments(TableWriter.Factory tables, IdOffsets offsets, int[] itemOwners) throws SQLException {
+        ZipfSampler hotItems = new ZipfSampler(properties.getItems(), properties.getItemSkew());
+        long historySeconds = Math.max(1, properties.getHistory().toSeconds());
+        try (TableWriter comments = tables.open("comments", "id", "uuid", "text", "item_id", "author_id", "created_at")) {
+            for (int i = 1; i <= properties.getComments(); i++) {
+                int item = hotItems.sample(random);
+                long id = offsets.comments() + i;
+                comments.row(id, uuid(id), "Отзыв: вещь " + pick(QUALITIES),
+                        offsets.items() + item + 1, booker(offsets, itemOwners[item]),
+                        now.minusSeconds(1 + random.nextLong(historySeconds)));
+            }
+        }
+    }
+
+    // id уникален в таблице, значит, и построенный из него ключ тоже. Постоянная старшая половина
+    // не совпадает со случайными ключами, которые выдаёт приложение, и оставляет набор воспроизводимым
+    private static UUID uuid(long id) {
+        return new UUID(UUID_PREFIX, id);
+    }
+
+    private BookingStatus status(LocalDateTime start) {
+        double roll = random.nextDouble();
+        if (start.isAfter(now)) return roll < 0.3 ? BookingStatus.WAITING : BookingStatus.APPROVED;
+        return roll < 0.85 ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+    }
+
+    private long user(IdOffsets offsets) {
+        return offsets.users() + 1 + random.nextInt(properties.getUsers());
+    }
+
+    // Владелец не бронирует и не оценивает свою вещь
+    private long booker(IdOffsets offsets, int owner) {
+        int booker = 1 + random.nextInt(properties.getUsers());
+        if (booker == owner) booker = booker % properties.getUsers() + 1;
+        return offsets.users() + booker;
+    }
+
+    private String pick(List<String> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    /**
+     * Наибольшие существующие id таблиц: новые строки получают id после них.
+     */
+    public record IdOffsets(long users, long requests, long items, long bookings, long comments) {
+        public static final IdOffsets EMPTY = new IdOffsets(0, 0, 0, 0, 0);
+    }
+}
@@ -0,0 +1,140 @@
+package ru.practicum.shareit.dataset;
+
+import ru.practicum.shareit.booking.shard.BookingShardReconciler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Загружает сгенерированный набор в базу: PostgreSQL через COPY, остальные базы через JDBC batch.
+ * После загрузки, в том числе неудачной, счётчики identity сдвигаются за последний id, чтобы приложение
+ * могло добавлять строки как обычно.
+ * <p>
+ * Набор содержит и уже начавшиеся бронирования, поэтому в PostgreSQL таблица bookings не должна иметь
+ * проверки start_date > CURRENT_TIMESTAMP из schema.sql: её снимает db/postgresql/bookings-partitioning.sql.
+ * Строки пишутся в обход очереди переноса в шарды, поэтому при включённом шардировании после загрузки
+ * шарды сверяются с основной базой заново.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class DatasetLoader {
+    private static final List<String> TABLES = List.of("users", "requests", "items", "bookings", "comments");
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    private final JdbcTemplate jdbcTemplate;
+    // Есть, только если включено шардирование бронирований
+    private final BookingShardReconciler shardReconciler;
+
+    public long load(DatasetProperties properties) {
+        try {
+            return loadRows(properties);
+        } finally {
+            // И после неудачной загрузки: уже зафиксированные таблицы остаются в базе
+            if (shardReconciler != null) shardReconciler.reconcile();
+        }
+    }
+
+    private long loadRows(DatasetProperties properties) {
+        long start = System.nanoTime();
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            boolean postgres = POSTGRESQL.equals(connection.getMetaData().getDatabaseProductName());
+            if (postgres) requireNoStartDateCheck(connection);
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                TableWriter.Factory tables = postgres
+                        ? (table, columns) -> new CopyTableWriter(
+                                connection.unwrap(PGConnection.class).getCopyAPI(), table, columns)
+                        : (table, columns) -> new BatchTableWriter(
+                                connection, properties.getBatchSize(), table, columns);
+                long loaded = new DatasetGenerator(properties, LocalDateTime.now())
+                        .generate(committing(tables, connection), offsets(connection));
+                connection.commit();
+                return loaded;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                // Таблицы фиксируются по мере загрузки, и после ошибки в базе остаются уже записанные строки
+                try {
+                    for (String table : TABLES) {
+                        restartIdentity(connection, table, postgres);
+                    }
+                    connection.commit();
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+            }
+        });
+
+        long total = rows != null ? rows : 0;
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        log.info("Загружен набор данных: {} строк за {} мс ({} строк/с)", total, millis, total * 1000 / millis);
+        return total;
+    }
+
+    // Каждая таблица фиксируется сразу после загрузки, пачки внутри BatchTableWriter - по мере отправки
+    private static TableWriter.Factory committing(TableWriter.Factory tables, Connection connection) {
+        return (table, columns) -> {
+            TableWriter writer = tables.open(table, columns);
+            return new TableWriter() {
+                @Override
+                public void row(Object... values) throws SQLException {
+                    writer.row(values);
+                }
+
+                @Override
+                public void close() throws SQLException {
+                    writer.close();
+                    connection.commit();
+                }
+            };
+        };
+    }
+
+    private static void requireNoStartDateCheck(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             var resultSet = statement.executeQuery("select count(*) from pg_constraint "
+                     + "where conrelid = 'bookings'::regclass and contype = 'c' "
+                     + "and pg_get_constraintdef(oid) ilike '%current_timestamp%'")) {
+            resultSet.next();
+            if (resultSet.getLong(1) > 0) {
+                throw new IllegalStateException("Таблица bookings проверяет start_date > CURRENT_TIMESTAMP, "
+                        + "а набор содержит прошедшие бронирования: примените db/postgresql/bookings-partitioning.sql");
+            }
+        }
+    }
+
+    private static DatasetGenerator.IdOffsets offsets(Connection connection) throws SQLException {
+        return new DatasetGenerator.IdOffsets(maxId(connection, "users"), maxId(connection, "requests"),
+                maxId(connection, "items"), maxId(connection, "bookings"), maxId(connection, "comments"));
+    }
+
+    private static long maxId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             var resultSet = statement.executeQuery("select coalesce(max(id), 0) from " + table)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static void restartIdentity(Connection connection, String table, boolean postgres) throws SQLException {
+        long next = maxId(connection, table) + 1;
+        try (Statement statement = connection.createStatement()) {
+            if (postgres) {
+                statement.execute("select setval(pg_get_serial_sequence('" + table + "', 'id'), " + next + ", false)");
+            } else {
+                statement.execute("alter table " + table + " alter column id restart with " + next);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.dataset;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.dataset")
+public class DatasetProperties {
+    // Загрузка при старте приложения; бенчмарки и нагрузочные тесты вызывают DatasetLoader напрямую
+    private boolean enabled = false;
+
+    // Одинаковое зерно даёт одинаковый набор при тех же размерах
+    private long seed = 42;
+
+    private int users = 10_000;
+
+    private int requests = 5_000;
+
+    private int items = 50_000;
+
+    private int bookings = 1_000_000;
+
+    private int comments = 100_000;
+
+    // Показатель степенного распределения вещей по владельцам: чем больше, тем сильнее перекос
+    private double ownerSkew = 1.1;
+
+    // Показатель распределения бронирований и отзывов по вещам: популярные вещи собирают большую часть
+    private double itemSkew = 1.2;
+
+    // Доля вещей, добавленных в ответ на запрос
+    private double requestedItemShare = 0.1;
+
+    private double availableItemShare = 0.9;
+
+    // Бронирования начинаются в интервале [now - history, now + horizon]
+    private Duration history = Duration.ofDays(365);
+
+    private Duration horizon = Duration.ofDays(90);
+
+    // Размер пачки для вставки через JDBC batch, когда COPY недоступен
+    private int batchSize = 5_000;
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.dataset;
+
+import java.sql.SQLException;
+
+/**
+ * Построчная запись в таблицу. Значения передаются в порядке столбцов, с которыми запись открыта.
+ */
+public interface TableWriter extends AutoCloseable {
+    void row(Object... values) throws SQLException;
+
+    @Override
+    void close() throws SQLException;
+
+    @FunctionalInterface
+    interface Factory {
+        TableWriter open(String table, String... columns) throws SQLException;
+    }
+}
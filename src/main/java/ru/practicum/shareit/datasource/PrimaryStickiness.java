@@ -0,0 +1,51 @@
+package ru.practicum.shareit.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+public class PrimaryStickiness {
+    private static final ThreadLocal<Long> CURRENT_USER = new ThreadLocal<>();
+
+    private final Cache<Long, Boolean> recentWriters;
+
+    public PrimaryStickiness(Duration window, long maxTrackedUsers) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maxTrackedUsers)
+                .build();
+    }
+
+    public static void setCurrentUser(Long userId) {
+        CURRENT_USER.set(userId);
+    }
+
+    public static void clearCurrentUser() {
+        CURRENT_USER.remove();
+    }
+
+    // Чтения задачи из пула идут туда же, куда и чтения отдавшего её запроса
+    public static Runnable withCurrentUser(Runnable task) {
+        Long userId = CURRENT_USER.get();
+        if (userId == null) return task;
+
+        return () -> {
+            setCurrentUser(userId);
+            try {
+                task.run();
+            } finally {
+                clearCurrentUser();
+            }
+        };
+    }
+
+    public void markWrite(Long userId) {
+        if (userId != null) recentWriters.put(userId, Boolean.TRUE);
+    }
+
+    public boolean isCurrentUserSticky() {
+        Long userId = CURRENT_USER.get();
+        return userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+}
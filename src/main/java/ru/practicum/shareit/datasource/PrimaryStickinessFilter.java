@@ -0,0 +1,43 @@
+package ru.practicum.shareit.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+@RequiredArgsConstructor
+public class PrimaryStickinessFilter extends OncePerRequestFilter {
+    private static final String X_SHARER_USER_ID = "X-Sharer-User-Id";
+    private final PrimaryStickiness stickiness;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Long userId = parseUserId(request.getHeader(X_SHARER_USER_ID));
+        PrimaryStickiness.setCurrentUser(userId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            PrimaryStickiness.clearCurrentUser();
+            if (isWrite(request) && response.getStatus() < 400) stickiness.markWrite(userId);
+        }
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod());
+    }
+
+    private static Long parseUserId(String header) {
+        if (header == null) return null;
+        try {
+            return Long.valueOf(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public class ReplicaLagMonitor implements AutoCloseable {
+    private final DataSource replica;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile boolean healthy = true;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, Duration maxLag) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start(Duration interval) {
+        scheduler.scheduleWithFixedDelay(this::check, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isReplicaHealthy() {
+        return healthy;
+    }
+
+    void check() {
+        boolean wasHealthy = healthy;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(lagQuery)) {
+            double lag = rs.next() ? rs.getDouble(1) : Double.MAX_VALUE;
+            healthy = lag <= maxLagSeconds;
+            if (wasHealthy && !healthy) {
+                log.warn("Отставание реплики {} с превышает допустимые {} с, чтение переключено на основную базу",
+                        lag, maxLagSeconds);
+            }
+        } catch (Exception e) {
+            healthy = false;
+            if (wasHealthy) log.warn("Реплика недоступна, чтение переключено на основную базу: {}", e.getMessage());
+        }
+        if (!wasHealthy && healthy) log.info("Реплика снова используется для чтения");
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
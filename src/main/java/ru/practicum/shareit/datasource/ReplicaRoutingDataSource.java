@@ -0,0 +1,39 @@
+package ru.practicum.shareit.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Источник соединений для readOnly транзакций: реплика, если она не отстаёт
+ * и текущий пользователь недавно ничего не записывал, иначе основная база.
+ */
+public class ReplicaRoutingDataSource extends DelegatingDataSource {
+    private final DataSource primary;
+    private final ReplicaLagMonitor lagMonitor;
+    private final PrimaryStickiness stickiness;
+
+    public ReplicaRoutingDataSource(DataSource replica, DataSource primary,
+                                    ReplicaLagMonitor lagMonitor, PrimaryStickiness stickiness) {
+        super(replica);
+        this.primary = primary;
+        this.lagMonitor = lagMonitor;
+        this.stickiness = stickiness;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return useReplica() ? super.getConnection() : primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return useReplica() ? super.getConnection(username, password) : primary.getConnection(username, password);
+    }
+
+    private boolean useReplica() {
+        return lagMonitor.isReplicaHealthy() && !stickiness.isCurrentUserSticky();
+    }
+}
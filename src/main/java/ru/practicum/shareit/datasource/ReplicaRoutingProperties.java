@@ -0,0 +1,38 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.datasource.routing")
+public class ReplicaRoutingProperties {
+    private boolean enabled = false;
+
+    private Replica replica = new Replica();
+
+    // Максимально допустимое отставание реплики, при превышении чтение идёт в основную базу
+    private Duration maxReplicaLag = Duration.ofSeconds(5);
+
+    // Сколько после собственной записи пользователя его чтения направляются в основную базу
+    private Duration stickyPrimaryWindow = Duration.ofSeconds(5);
+
+    private Duration lagCheckInterval = Duration.ofSeconds(1);
+
+    // Запрос к реплике, возвращающий отставание в секундах
+    private String lagQuery = "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 " +
+            "else extract(epoch from now() - pg_last_xact_replay_timestamp()) end";
+
+    @Getter
+    @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        private int maximumPoolSize = 10;
+    }
+}
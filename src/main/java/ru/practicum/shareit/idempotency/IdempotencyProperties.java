@@ -0,0 +1,20 @@
+package ru.practicum.shareit.idempotency;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.idempotency")
+public class IdempotencyProperties {
+    // Сколько хранится ответ для повторов с тем же ключом
+    private Duration ttl = Duration.ofHours(1);
+
+    private long maxEntries = 100_000;
+
+    // Сколько повтор ждёт ответа ещё выполняющегося первого запроса, прежде чем получить 409
+    private Duration waitTimeout = Duration.ofSeconds(10);
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.idempotency;
+
+import ru.practicum.shareit.exception.ConflictException;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+@Slf4j
+@Service
+public class IdempotencyService {
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String KEY_REUSED_ERR = "Ключ идемпотентности %s уже использован с другими данными запроса";
+    public static final String IN_PROGRESS_ERR = "Запрос с ключом идемпотентности %s ещё выполняется, повторите позже";
+
+    private final Cache<Key, Entry> entries;
+    private final Duration waitTimeout;
+
+    public IdempotencyService(IdempotencyProperties properties) {
+        this.entries = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getTtl())
+                .maximumSize(properties.getMaxEntries())
+                .build();
+        this.waitTimeout = properties.getWaitTimeout();
+    }
+
+    /**
+     * Выполняет действие один раз для каждого ключа: повтор получает сохранённый ответ,
+     * одновременные повторы ждут завершения первого выполнения не дольше waitTimeout. Ошибки не сохраняются.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Long userId, String operation, String idempotencyKey, Object request, Supplier<T> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) return action.get();
+
+        Key key = new Key(userId, operation, idempotencyKey);
+        Entry entry = new Entry(request, new CompletableFuture<>());
+        Entry existing = entries.asMap().putIfAbsent(key, entry);
+
+        if (existing != null) {
+            if (!Objects.equals(existing.request(), request)) {
+                throw new ConflictException(String.format(KEY_REUSED_ERR, idempotencyKey));
+            }
+            log.info("Повтор запроса {} пользователя с id={} по ключу {}", operation, userId, idempotencyKey);
+            try {
+                return (T) existing.response().get(waitTimeout.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // Зависшее первое выполнение не должно держать все повторы с тем же ключом
+                throw new ConflictException(String.format(IN_PROGRESS_ERR, idempotencyKey));
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ConflictException(String.format(IN_PROGRESS_ERR, idempotencyKey));
+            }
+        }
+
+        try {
+            T response = action.get();
+            entry.response().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            entries.asMap().remove(key, entry);
+            entry.response().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private record Key(Long userId, String operation, String idempotencyKey) {
+    }
+
+    private record Entry(Object request, CompletableFuture<Object> response) {
+    }
+}
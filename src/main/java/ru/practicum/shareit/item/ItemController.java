@@ -1,16 +1,32 @@
 package ru.practicum.shareit.item;
 
+import ru.practicum.shareit.common.BatchEntry;
+import ru.practicum.shareit.common.ETags;
+import ru.practicum.shareit.common.FieldSet;
+import ru.practicum.shareit.item.cache.ItemJsonCache;
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.idempotency.IdempotencyService;
 import ru.practicum.shareit.item.service.ItemService;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 @Slf4j
 @RestController
@@ -19,55 +35,99 @@ import java.util.List;
 public class ItemController {
     private static final String X_SHARER_USER_ID = "X-Sharer-User-Id";
     private final ItemService itemService;
+    private final IdempotencyService idempotencyService;
+    private final ItemJsonCache itemJsonCache;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public ItemDto createItem(@RequestHeader(X_SHARER_USER_ID) Long userId,
+                              @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY, required = false)
+                              String idempotencyKey,
                               @Validated @RequestBody ItemDto itemDto) {
-        log.info("POST /items - создание вещи пользователем с id={}, данные: {}", userId, itemDto);
-        return itemService.createItem(userId, itemDto);
+        log.debug("POST /items - создание вещи пользователем с id={}, данные: {}", userId, itemDto);
+        return idempotencyService.execute(userId, "POST /items", idempotencyKey, itemDto,
+                () -> itemService.createItem(userId, itemDto));
     }
 
     @PostMapping("/{itemId}/comment")
     public CommentDto addComment(@RequestHeader(X_SHARER_USER_ID) Long userId,
                                  @PathVariable Long itemId,
                                  @RequestBody CommentDto commentDto) {
-        log.info("POST /items/{}/comment - добавление комментария пользователем с id={}, данные: {}",
+        log.debug("POST /items/{}/comment - добавление комментария пользователем с id={}, данные: {}",
                 itemId, userId, commentDto);
         return itemService.addComment(userId, itemId, commentDto);
     }
 
     @PatchMapping("/{itemId}")
-    public ItemDto updateItem(@RequestHeader(X_SHARER_USER_ID) Long userId,
-                              @PathVariable Long itemId,
-                              @RequestBody ItemDto itemDto) {
-        log.info("PATCH /items/{} - обновление вещи пользователем с id={}, данные: {}",
+    public ResponseEntity<ItemDto> updateItem(@RequestHeader(X_SHARER_USER_ID) Long userId,
+                                              @PathVariable Long itemId,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                              @RequestHeader(value = ETags.PREFER, required = false) String prefer,
+                                              @RequestBody ItemDto itemDto) {
+        log.debug("PATCH /items/{} - обновление вещи пользователем с id={}, данные: {}",
                 itemId, userId, itemDto);
-        return itemService.updateItem(userId, itemId, itemDto);
+        if (ifMatch == null || ETags.ANY.equals(ifMatch.trim())) {
+            return ResponseEntity.ok(itemService.updateItem(userId, itemId, itemDto));
+        }
+
+        long version = itemService.updateItemIfVersionMatches(userId, itemId, ETags.parseVersion(ifMatch), itemDto);
+        String eTag = ETags.nextVersion(ifMatch, version);
+        if (ETags.isMinimalReturnPreferred(prefer)) return ResponseEntity.noContent().eTag(eTag).build();
+        return ResponseEntity.ok().eTag(eTag).body(itemService.getItemDto(itemId));
     }
 
     @GetMapping("/{itemId}")
-    public ItemDtoResponse getItem(@RequestHeader(X_SHARER_USER_ID) Long userId, @PathVariable Long itemId) {
-        log.info("GET /items/{} - запрос вещи пользователем с id={}", itemId, userId);
-        return itemService.getItem(userId, itemId);
+    public ResponseEntity<byte[]> getItem(@RequestHeader(X_SHARER_USER_ID) Long userId, @PathVariable Long itemId,
+                                          WebRequest request) {
+        log.debug("GET /items/{} - запрос вещи пользователем с id={}", itemId, userId);
+        Optional<String> eTag = itemService.getItemETag(userId, itemId);
+        // Без версии вещи нет в базе: ответ кэша мог остаться от удалённой вещи, поэтому он не читается
+        if (eTag.isEmpty()) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(itemJsonCache.toJson(itemService.getItem(userId, itemId)));
+        }
+        if (request.checkNotModified(eTag.get())) return null;
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(itemJsonCache.getItemJson(userId, itemId, () -> itemService.getItem(userId, itemId)));
     }
 
     @GetMapping
-    public List<ItemDtoResponse> getUserItems(@RequestHeader(X_SHARER_USER_ID) Long userId) {
-        log.info("GET /items - запрос всех вещей пользователя с id={}", userId);
-        return new ArrayList<>(itemService.getUserItems(userId));
+    public MappingJacksonValue getUserItems(@RequestHeader(X_SHARER_USER_ID) Long userId,
+                                            @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+                                            @RequestParam(defaultValue = "10") @Positive
+                                            @Max(ItemService.MAX_PAGE_SIZE) int size,
+                                            @RequestParam(required = false) String fields) {
+        log.debug("GET /items?from={}&size={} - запрос вещей пользователя с id={}", from, size, userId);
+        FieldSet fieldSet = FieldSet.parse(fields);
+        return fieldSet.apply(itemService.getUserItems(userId, from, size, fieldSet));
+    }
+
+    @GetMapping(params = "ids")
+    public List<BatchEntry<ItemDtoResponse>> getItemsByIds(@RequestHeader(X_SHARER_USER_ID) Long userId,
+                                                           @RequestParam @Size(max = BatchEntry.MAX_IDS) List<Long> ids) {
+        log.debug("GET /items?ids={} - пакетный запрос вещей пользователем с id={}", ids, userId);
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        return BatchEntry.of(uniqueIds, itemService.getItems(userId, uniqueIds), id -> "Не найдена вещь с id: " + id);
     }
 
     @GetMapping("/search")
-    public List<ItemDtoResponse> getItemsByText(@RequestParam("text") String text) {
-        log.info("GET /items/search?text={} - поиск вещей по тексту", text);
-        return new ArrayList<>(itemService.getItemsByText(text));
+    public MappingJacksonValue getItemsByText(@RequestParam("text") String text,
+                                              @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+                                              @RequestParam(defaultValue = "10") @Positive
+                                              @Max(ItemService.MAX_PAGE_SIZE) int size,
+                                              @RequestParam(required = false) String fields) {
+        log.debug("GET /items/search?text={}&from={}&size={} - поиск вещей по тексту", text, from, size);
+        FieldSet fieldSet = FieldSet.parse(fields);
+        return fieldSet.apply(itemService.getItemsByText(text, from, size, fieldSet));
     }
 
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteItem(@PathVariable Long id) {
-        log.info("DELETE /items/{} - удаление вещи", id);
+        log.debug("DELETE /items/{} - удаление вещи", id);
         itemService.deleteItem(id);
     }
 }
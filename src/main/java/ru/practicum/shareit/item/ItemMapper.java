@@ -6,6 +6,7 @@ import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemSummary;
 
 import java.util.Collection;
 import java.util.List;
@@ -29,6 +30,21 @@ public final class ItemMapper {
         return item;
     }
 
+    public static ItemDtoResponse toItemDtoResponse(
+            ItemSummary item, Collection<Booking> bookings, Collection<Comment> comments
+    ) {
+        return ItemDtoResponse.builder()
+                .id(item.id())
+                .name(item.name())
+                .description(item.description())
+                .available(item.available())
+                .requestId(item.requestId())
+                .bookings(bookings.stream().map(BookingMapper::toBookingDto).toList())
+                .comments(comments.stream().map(CommentMapper::toCommentDto).toList())
+                .ownerId(item.ownerId())
+                .build();
+    }
+
     public static ItemDtoResponse toItemDtoResponse(
             Item item, Collection<Booking> bookings, Collection<Comment> comments
     ) {
@@ -48,6 +64,7 @@ public final class ItemMapper {
                 .requestId(item.getRequest() != null ? item.getRequest().getId() : null)
                 .bookings(bookingDto)
                 .comments(commentDto)
+                .ownerId(item.getOwner() != null ? item.getOwner().getId() : null)
                 .build();
     }
 }
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.cache;
+
+/**
+ * Публикуется при изменении вещи, её бронирований или комментариев.
+ * itemId == null означает, что могли измениться любые вещи.
+ */
+public record ItemChangedEvent(Long itemId) {
+
+    public static ItemChangedEvent allItems() {
+        return new ItemChangedEvent(null);
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.item.cache;
+
+import ru.practicum.shareit.item.dto.ItemDtoResponse;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Готовый JSON вещи для всех, кроме владельца: их ответ одинаков, поэтому попадание в кэш
+ * отдаётся без обращения к базе и без сериализации.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(ItemJsonCacheProperties.class)
+public class ItemJsonCache {
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Cache<Long, CachedItem> items;
+    // Меняется при каждой инвалидации, чтобы загрузка, начатая до изменения, не сохранила устаревший ответ
+    private final AtomicLong generation = new AtomicLong();
+
+    public ItemJsonCache(ObjectMapper objectMapper, ItemJsonCacheProperties properties) {
+        this.objectMapper = objectMapper;
+        this.enabled = properties.isEnabled();
+        this.items = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(properties.getTtl())
+                .build();
+    }
+
+    public byte[] getItemJson(Long userId, Long itemId, Supplier<ItemDtoResponse> loader) {
+        CachedItem cached = enabled ? items.getIfPresent(itemId) : null;
+        if (cached != null && !cached.ownerId().equals(userId)) return cached.json();
+
+        long loadGeneration = generation.get();
+        ItemDtoResponse item = loader.get();
+        byte[] json = toJson(item);
+
+        if (enabled && item.getOwnerId() != null && !item.getOwnerId().equals(userId)) {
+            items.asMap().compute(itemId, (id, current) ->
+                    generation.get() == loadGeneration ? new CachedItem(item.getOwnerId(), json) : current);
+        }
+        return json;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        generation.incrementAndGet();
+        if (event.itemId() == null) {
+            items.invalidateAll();
+        } else {
+            items.invalidate(event.itemId());
+        }
+        log.debug("Сброшен кэш JSON вещи: {}", event.itemId() == null ? "все" : event.itemId());
+    }
+
+    public byte[] toJson(ItemDtoResponse item) {
+        try {
+            return objectMapper.writeValueAsBytes(item);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать вещь с id: " + item.getId(), e);
+        }
+    }
+
+    private record CachedItem(Long ownerId, byte[] json) {
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.item.json-cache")
+public class ItemJsonCacheProperties {
+    private boolean enabled = true;
+
+    private long maxEntries = 10_000;
+
+    // Страховка на случай пропущенного события об изменении
+    private Duration ttl = Duration.ofMinutes(10);
+}
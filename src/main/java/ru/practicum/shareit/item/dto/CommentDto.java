@@ -2,15 +2,18 @@ package ru.practicum.shareit.item.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Data;
+import lombok.ToString;
 import lombok.Builder;
 import lombok.AllArgsConstructor;
 
 import java.time.LocalDateTime;
 
 @Data
+@ToString(onlyExplicitlyIncluded = true)
 @Builder
 @AllArgsConstructor
 public class CommentDto {
+    @ToString.Include
     private Long id;
     private String text;
     private String authorName;
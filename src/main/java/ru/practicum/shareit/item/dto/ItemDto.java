@@ -5,11 +5,14 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.ToString;
 
 @Data
+@ToString(onlyExplicitlyIncluded = true)
 @Builder
 @AllArgsConstructor
 public class ItemDto {
+    @ToString.Include
     private Long id;
 
     @NotBlank(message = "Название не должно быть пустым")
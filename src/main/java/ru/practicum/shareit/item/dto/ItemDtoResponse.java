@@ -3,8 +3,10 @@ package ru.practicum.shareit.item.dto;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import ru.practicum.shareit.booking.dto.BookingDto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
+import lombok.ToString;
 import lombok.Builder;
 import lombok.AllArgsConstructor;
 
@@ -12,9 +14,11 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
-@Builder
+@ToString(onlyExplicitlyIncluded = true)
+@Builder(toBuilder = true)
 @AllArgsConstructor
 public class ItemDtoResponse {
+    @ToString.Include
     private Long id;
     private String name;
     private String description;
@@ -30,4 +34,7 @@ public class ItemDtoResponse {
 
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime nextBooking;
+
+    @JsonIgnore
+    private Long ownerId;
 }
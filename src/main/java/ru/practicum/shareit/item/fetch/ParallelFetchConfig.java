@@ -0,0 +1,50 @@
+package ru.practicum.shareit.item.fetch;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(ParallelFetchProperties.class)
+public class ParallelFetchConfig {
+
+    @Bean(destroyMethod = "close")
+    public ParallelFetcher itemParallelFetcher(ParallelFetchProperties properties,
+                                               ObjectProvider<TaskDecorator> decorators,
+                                               @Qualifier("dataSource") DataSource dataSource) throws SQLException {
+        if (!properties.isEnabled()) return ParallelFetcher.sequential();
+
+        // Каждое параллельное чтение держит соединение вызывающего потока и ещё одно в пуле:
+        // вместе они не должны исчерпать пул Hikari, иначе задачи ждут соединение до таймаута
+        int poolSize = maximumPoolSize(dataSource);
+        int maxConcurrentFetches = poolSize - properties.getThreads();
+        if (maxConcurrentFetches < 1) {
+            throw new IllegalStateException(String.format("shareit.item.parallel-fetch.threads (%d) должно быть "
+                    + "меньше maximum-pool-size пула соединений (%d)", properties.getThreads(), poolSize));
+        }
+
+        log.info("Параллельное чтение бронирований и комментариев вещи включено, потоков: {}, "
+                + "одновременных параллельных чтений: {}", properties.getThreads(), maxConcurrentFetches);
+        // Модули со своим контекстом в ThreadLocal объявляют декораторы задач, они применяются все
+        TaskDecorator decorator = decorators.orderedStream()
+                .reduce(task -> task, (outer, inner) -> task -> outer.decorate(inner.decorate(task)));
+        return ParallelFetcher.parallel(properties.getThreads(), maxConcurrentFetches, decorator);
+    }
+
+    // Основной DataSource может быть обёрнут: разбор медленных запросов, маршрутизация на реплику
+    private static int maximumPoolSize(DataSource dataSource) throws SQLException {
+        if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+            throw new IllegalStateException("Параллельное чтение требует пула соединений Hikari");
+        }
+        return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+    }
+}
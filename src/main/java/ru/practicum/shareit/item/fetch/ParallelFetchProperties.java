@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.fetch;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.item.parallel-fetch")
+public class ParallelFetchProperties {
+    private boolean enabled = false;
+
+    // Каждый поток держит своё соединение, поэтому пул должен быть заметно меньше пула Hikari:
+    // одновременных параллельных чтений допускается не больше maximum-pool-size минус threads
+    private int threads = 4;
+}
@@ -0,0 +1,97 @@
+package ru.practicum.shareit.item.fetch;
+
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Выполняет два независимых чтения. В параллельном режиме первое уходит в ограниченный пул
+ * и идёт на своём соединении, второе выполняется в вызывающем потоке.
+ * Сущности из первого чтения возвращаются отсоединёнными, ленивые связи должны быть загружены заранее.
+ * Контекст запроса из ThreadLocal переносится в поток пула декоратором задач.
+ * <p>
+ * Вызывающий поток обычно уже держит соединение и ждёт задачу, которой нужно второе. Поэтому число
+ * одновременных параллельных чтений ограничено: вместе с потоками пула они не должны занимать больше
+ * соединений, чем есть в пуле. Если разрешения нет, оба чтения выполняются последовательно в вызывающем потоке.
+ */
+public class ParallelFetcher implements AutoCloseable {
+    private final ExecutorService executor;
+    private final TaskDecorator decorator;
+    private final Semaphore permits;
+
+    private ParallelFetcher(ExecutorService executor, TaskDecorator decorator, Semaphore permits) {
+        this.executor = executor;
+        this.decorator = decorator;
+        this.permits = permits;
+    }
+
+    public static ParallelFetcher sequential() {
+        return new ParallelFetcher(null, null, null);
+    }
+
+    public static ParallelFetcher parallel(int threads) {
+        return parallel(threads, task -> task);
+    }
+
+    public static ParallelFetcher parallel(int threads, TaskDecorator decorator) {
+        return parallel(threads, Integer.MAX_VALUE, decorator);
+    }
+
+    public static ParallelFetcher parallel(int threads, int maxConcurrentFetches, TaskDecorator decorator) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ParallelFetcher(Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "item-fetch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }), decorator, new Semaphore(maxConcurrentFetches));
+    }
+
+    public boolean isParallel() {
+        return executor != null;
+    }
+
+    public <A, B, R> R fetch(Supplier<A> first, Supplier<B> second, BiFunction<A, B, R> combiner) {
+        if (executor == null || !permits.tryAcquire()) return combiner.apply(first.get(), second.get());
+        try {
+            return fetchInParallel(first, second, combiner);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private <A, B, R> R fetchInParallel(Supplier<A> first, Supplier<B> second, BiFunction<A, B, R> combiner) {
+        // Декоратор вызывается здесь, в потоке запроса, и захватывает его контекст для задачи
+        CompletableFuture<A> firstResult = CompletableFuture.supplyAsync(first,
+                task -> executor.execute(decorator.decorate(task)));
+        B secondResult;
+        try {
+            secondResult = second.get();
+        } catch (RuntimeException e) {
+            firstResult.cancel(false);
+            throw e;
+        }
+        return combiner.apply(join(firstResult), secondResult);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // Исключение из пула отдаём как есть, чтобы ErrorHandler видел исходный тип
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) executor.shutdownNow();
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.model;
 
+import ru.practicum.shareit.common.BaseEntity;
 import ru.practicum.shareit.user.model.User;
 
 import lombok.Getter;
@@ -14,35 +15,22 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @Getter
 @Setter
-@ToString
+@ToString(onlyExplicitlyIncluded = true)
 @Table(name = "comments")
-public class Comment {
+public class Comment extends BaseEntity {
     @Id
+    @ToString.Include
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     private String text;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @ToString.Exclude
     private Item item;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @ToString.Exclude
     private User author;
 
     @Column(name = "created_at")
     private LocalDateTime created;
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (!(o instanceof Comment)) return false;
-        return id != null && id.equals(((Comment) o).getId());
-    }
-
-    @Override
-    public int hashCode() {
-        return getClass().hashCode();
-    }
 }
 
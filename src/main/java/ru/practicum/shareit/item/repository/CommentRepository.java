@@ -1,10 +1,16 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.shareit.item.model.Comment;
 
 import java.util.Collection;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    // Имя автора нужно в каждом ответе, а при параллельном чтении комментарии приходят отсоединёнными
+    @EntityGraph(attributePaths = "author")
     Collection<Comment> findByItemId(Long itemId);
+
+    @EntityGraph(attributePaths = "author")
+    Collection<Comment> findByItemIdIn(Collection<Long> itemIds);
 }
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.repository;
+
+/**
+ * Версия вещи и сводка по её бронированиям и отзывам, которые тоже входят в ответ по вещи.
+ * Число строк ловит добавление и удаление, последний id - замену одной строки другой,
+ * сумма версий - смену статуса брони или имени автора отзыва.
+ */
+public interface ItemContentVersion {
+    Long getOwnerId();
+
+    Long getVersion();
+
+    Long getBookingCount();
+
+    Long getLastBookingId();
+
+    Long getBookingVersions();
+
+    Long getCommentCount();
+
+    Long getLastCommentId();
+
+    Long getCommentAuthorVersions();
+}
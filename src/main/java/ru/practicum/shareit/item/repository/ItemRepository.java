@@ -2,17 +2,43 @@ package ru.practicum.shareit.item.repository;
 
 import ru.practicum.shareit.item.model.Item;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findAllByOwnerId(Long id);
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemRepositoryCustom {
+    int SUMMARY_LENGTH = 200;
+    String SUMMARY_SELECT = "select new ru.practicum.shareit.item.repository.ItemSummary(" +
+            "i.id, i.name, substring(i.description, 1, " + SUMMARY_LENGTH + "), i.available, r.id, i.owner.id) " +
+            "from Item i left join i.request r ";
 
-    @Query("select i from Item i " +
-            "where upper(i.name) like upper(concat('%', :text, '%')) " +
-            "   or upper(i.description) like upper(concat('%', :text, '%'))")
-    List<Item> search(@Param("text") String text);
+    @Query(SUMMARY_SELECT + "where i.owner.id = :ownerId order by i.id")
+    List<ItemSummary> findSummariesByOwnerId(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT +
+            "where i.available = true " +
+            "  and (upper(i.name) like upper(concat('%', :text, '%')) " +
+            "   or upper(i.description) like upper(concat('%', :text, '%'))) " +
+            "order by i.id")
+    List<ItemSummary> searchAvailableSummaries(@Param("text") String text, Pageable pageable);
+
+    @Query("select i.owner.id as ownerId, i.version as version from Item i where i.id = :itemId")
+    Optional<ItemVersion> findVersionById(@Param("itemId") Long itemId);
+
+    // Версия вещи относится только к её полям: бронирования и отзывы не берут блокировку строки вещи,
+    // а их изменения видны по сводке, из которой вместе с версией собирается метка ответа
+    @Query("select i.owner.id as ownerId, i.version as version, " +
+            "(select count(b) from Booking b where b.item.id = i.id) as bookingCount, " +
+            "(select coalesce(max(b.id), 0) from Booking b where b.item.id = i.id) as lastBookingId, " +
+            "(select coalesce(sum(b.version), 0) from Booking b where b.item.id = i.id) as bookingVersions, " +
+            "(select count(c) from Comment c where c.item.id = i.id) as commentCount, " +
+            "(select coalesce(max(c.id), 0) from Comment c where c.item.id = i.id) as lastCommentId, " +
+            "(select coalesce(sum(c.author.version), 0) from Comment c where c.item.id = i.id) " +
+            "as commentAuthorVersions " +
+            "from Item i where i.id = :itemId")
+    Optional<ItemContentVersion> findContentVersionById(@Param("itemId") Long itemId);
 }
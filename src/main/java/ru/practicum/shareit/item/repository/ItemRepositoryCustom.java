@@ -0,0 +1,8 @@
+package ru.practicum.shareit.item.repository;
+
+import java.util.Map;
+
+public interface ItemRepositoryCustom {
+    // Обновляет только переданные поля, если версия совпала и пользователь существует; возвращает число строк
+    int updateIfVersionMatches(Long itemId, long version, Long userId, Map<String, Object> changes);
+}
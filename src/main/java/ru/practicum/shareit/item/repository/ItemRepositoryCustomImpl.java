@@ -0,0 +1,39 @@
+package ru.practicum.shareit.item.repository;
+
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+import java.util.Map;
+
+public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int updateIfVersionMatches(Long itemId, long version, Long userId, Map<String, Object> changes) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Item> update = cb.createCriteriaUpdate(Item.class);
+        Root<Item> item = update.from(Item.class);
+
+        changes.forEach(update::set);
+        update.set(item.<Long>get("version"), cb.sum(item.get("version"), 1L));
+
+        Subquery<Long> user = update.subquery(Long.class);
+        Root<User> users = user.from(User.class);
+        user.select(users.get("id")).where(cb.equal(users.get("id"), userId));
+
+        update.where(
+                cb.equal(item.get("id"), itemId),
+                cb.equal(item.get("version"), version),
+                cb.exists(user)
+        );
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.item.repository;
+
+/**
+ * Строка списка вещей: описание обрезается в запросе до ItemRepository.SUMMARY_LENGTH символов.
+ */
+public record ItemSummary(Long id, String name, String description, Boolean available, Long requestId,
+                          Long ownerId) {
+}
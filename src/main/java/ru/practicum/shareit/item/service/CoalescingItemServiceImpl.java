@@ -0,0 +1,111 @@
+package ru.practicum.shareit.item.service;
+
+import ru.practicum.shareit.common.FieldSet;
+import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.singleflight.SingleFlight;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Одновременные запросы одной вещи разделяют одну загрузку представления владельца, остальные
+ * получают его без дат бронирований. Отключается свойством shareit.item.single-flight.enabled=false.
+ */
+@Slf4j
+@Primary
+@Service
+@ConditionalOnProperty(prefix = "shareit.item.single-flight", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+@EnableConfigurationProperties(ItemSingleFlightProperties.class)
+public class CoalescingItemServiceImpl implements ItemService {
+    private final ItemServiceImpl itemService;
+    private final SingleFlight<Long, ItemDtoResponse> itemLoads;
+
+    public CoalescingItemServiceImpl(ItemServiceImpl itemService, MeterRegistry meterRegistry,
+                                     ItemSingleFlightProperties properties) {
+        this.itemService = itemService;
+        this.itemLoads = new SingleFlight<>("item", meterRegistry, properties.getWaitTimeout());
+    }
+
+    @Override
+    public ItemDto createItem(Long userId, ItemDto itemDto) {
+        return itemService.createItem(userId, itemDto);
+    }
+
+    @Override
+    public CommentDto addComment(Long userId, Long itemId, CommentDto commentDto) {
+        return itemService.addComment(userId, itemId, commentDto);
+    }
+
+    @Override
+    public ItemDto updateItem(Long userId, Long itemId, ItemDto itemDto) {
+        return itemService.updateItem(userId, itemId, itemDto);
+    }
+
+    @Override
+    public long updateItemIfVersionMatches(Long userId, Long itemId, long version, ItemDto itemDto) {
+        return itemService.updateItemIfVersionMatches(userId, itemId, version, itemDto);
+    }
+
+    @Override
+    public ItemDtoResponse getItem(Long userId, Long itemId) {
+        return viewFor(userId, itemLoads.execute(itemId, () -> itemService.getOwnerView(itemId)));
+    }
+
+    @Override
+    public Map<Long, ItemDtoResponse> getItems(Long userId, Collection<Long> itemIds) {
+        return itemService.getItems(userId, itemIds);
+    }
+
+    @Override
+    public ItemDto getItemDto(Long itemId) {
+        return itemService.getItemDto(itemId);
+    }
+
+    @Override
+    public Optional<String> getItemETag(Long userId, Long itemId) {
+        return itemService.getItemETag(userId, itemId);
+    }
+
+    @Override
+    public Collection<ItemDtoResponse> getUserItems(Long userId) {
+        return getUserItems(userId, 0, DEFAULT_PAGE_SIZE, FieldSet.ALL);
+    }
+
+    @Override
+    public Collection<ItemDtoResponse> getUserItems(Long userId, int from, int size, FieldSet fields) {
+        return itemService.getUserItems(userId, from, size, fields);
+    }
+
+    @Override
+    public Collection<ItemDtoResponse> getItemsByText(String text) {
+        return getItemsByText(text, 0, DEFAULT_PAGE_SIZE, FieldSet.ALL);
+    }
+
+    @Override
+    public Collection<ItemDtoResponse> getItemsByText(String text, int from, int size, FieldSet fields) {
+        return itemService.getItemsByText(text, from, size, fields);
+    }
+
+    @Override
+    public void deleteItem(Long itemId) {
+        itemService.deleteItem(itemId);
+    }
+
+    // Результат загрузки общий для всех ожидавших её, поэтому каждый получает свою копию;
+    // списки бронирований и отзывов маппер создаёт неизменяемыми, их копировать не нужно
+    private static ItemDtoResponse viewFor(Long userId, ItemDtoResponse ownerView) {
+        ItemDtoResponse.ItemDtoResponseBuilder view = ownerView.toBuilder();
+        if (!Objects.equals(ownerView.getOwnerId(), userId)) view.lastBooking(null).nextBooking(null);
+        return view.build();
+    }
+}
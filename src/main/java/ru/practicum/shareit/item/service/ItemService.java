@@ -1,10 +1,15 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.common.FieldSet;
 import ru.practicum.shareit.item.dto.*;
 
 import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
 
 public interface ItemService {
+    int DEFAULT_PAGE_SIZE = 10;
+    int MAX_PAGE_SIZE = 100;
 
     ItemDto createItem(Long userId, ItemDto itemDto);
 
@@ -12,11 +17,23 @@ public interface ItemService {
 
     ItemDto updateItem(Long userId, Long itemId, ItemDto itemDto);
 
+    long updateItemIfVersionMatches(Long userId, Long itemId, long version, ItemDto itemDto);
+
     ItemDtoResponse getItem(Long userId, Long itemId);
 
+    ItemDto getItemDto(Long itemId);
+
+    Map<Long, ItemDtoResponse> getItems(Long userId, Collection<Long> itemIds);
+
+    Optional<String> getItemETag(Long userId, Long itemId);
+
     Collection<ItemDtoResponse> getUserItems(Long userId);
 
+    Collection<ItemDtoResponse> getUserItems(Long userId, int from, int size, FieldSet fields);
+
     Collection<ItemDtoResponse> getItemsByText(String text);
 
+    Collection<ItemDtoResponse> getItemsByText(String text, int from, int size, FieldSet fields);
+
     void deleteItem(Long itemId);
 }
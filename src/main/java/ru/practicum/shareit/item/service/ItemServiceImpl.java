@@ -1,22 +1,37 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.common.FieldSet;
+import ru.practicum.shareit.common.OffsetPageRequest;
 import ru.practicum.shareit.exception.*;
+import ru.practicum.shareit.item.cache.ItemChangedEvent;
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.item.fetch.ParallelFetcher;
 import ru.practicum.shareit.item.model.*;
 import ru.practicum.shareit.item.repository.*;
+import ru.practicum.shareit.jfr.ItemQueryEvent;
+import ru.practicum.shareit.booking.archive.ArchivedBookingDates;
+import ru.practicum.shareit.booking.archive.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.shard.BookingShardOutbox;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.user.service.UserService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static ru.practicum.shareit.item.CommentMapper.*;
 import static ru.practicum.shareit.item.ItemMapper.*;
@@ -30,18 +45,23 @@ public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
     private final CommentRepository commentRepository;
     private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ParallelFetcher parallelFetcher;
+    // Есть, только если включено шардирование бронирований
+    private final ObjectProvider<BookingShardOutbox> shardOutbox;
 
     @Override
     @Transactional
     public ItemDto createItem(Long userId, ItemDto itemDto) {
         User user = toUser(userService.getUserById(userId));
-        log.info("Создание вещи: {}", itemDto);
+        log.debug("Создание вещи: {}", itemDto);
         Item item = toItem(itemDto);
         item.setOwner(user);
         Item savedItem = itemRepository.save(item);
-        log.info("Вещь создана: {}", item);
+        log.debug("Вещь создана: {}", item);
         return toItemDto(savedItem);
     }
 
@@ -54,14 +74,20 @@ public class ItemServiceImpl implements ItemService {
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException("Не найдена вещь с id: " + itemId));
 
+        LocalDateTime now = LocalDateTime.now();
         Collection<Booking> bookings = bookingRepository.findByItemIdAndBookerIdAndEndDateIsBefore(
-                itemId, userId, LocalDateTime.now()
+                itemId, userId, now
         );
 
-        if (bookings.isEmpty()) throw new ValidationException("Пользователь не забронировал эту вещь");
+        // Давно завершённые бронирования перенесены в архив и тоже дают право оставить отзыв
+        if (bookings.isEmpty() && !archivedBookingRepository.existsByItemIdAndBookerIdAndEndDateIsBefore(
+                itemId, userId, now)) {
+            throw new ValidationException("Пользователь не забронировал эту вещь");
+        }
 
         Comment comment = toComment(commentDto, item, user);
         Comment savedComment = commentRepository.save(comment);
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId));
 
         return toCommentDto(savedComment);
     }
@@ -71,7 +97,7 @@ public class ItemServiceImpl implements ItemService {
     public ItemDto updateItem(Long userId, Long itemId, ItemDto itemDto) {
         userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Не найден пользователь с id: " + userId));
 
-        log.info("Обновление вещи с id: {} для пользователя с id: {}", itemId, userId);
+        log.debug("Обновление вещи с id: {} для пользователя с id: {}", itemId, userId);
         Item updatingItem = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException("Не найдена вещь с id: " + itemId));
 
@@ -79,79 +105,241 @@ public class ItemServiceImpl implements ItemService {
         if (Objects.nonNull(itemDto.getDescription())) updatingItem.setDescription(itemDto.getDescription());
         if (Objects.nonNull(itemDto.getAvailable())) updatingItem.setAvailable(itemDto.getAvailable());
 
-        log.info("Обновленная вещь: {}", updatingItem);
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId));
+        log.debug("Обновленная вещь: {}", updatingItem);
         return toItemDto(updatingItem);
     }
 
+    @Override
+    @Transactional
+    public long updateItemIfVersionMatches(Long userId, Long itemId, long version, ItemDto itemDto) {
+        log.debug("Условное обновление вещи с id: {} версии {} для пользователя с id: {}", itemId, version, userId);
+        Map<String, Object> changes = new HashMap<>();
+        if (Objects.nonNull(itemDto.getName())) changes.put("name", itemDto.getName());
+        if (Objects.nonNull(itemDto.getDescription())) changes.put("description", itemDto.getDescription());
+        if (Objects.nonNull(itemDto.getAvailable())) changes.put("available", itemDto.getAvailable());
+
+        if (itemRepository.updateIfVersionMatches(itemId, version, userId, changes) == 0) {
+            // Причину выясняем только при неудаче, успешное обновление обходится одним запросом
+            if (itemRepository.findVersionById(itemId).isEmpty())
+                throw new NotFoundException("Не найдена вещь с id: " + itemId);
+            if (!userRepository.existsById(userId))
+                throw new NotFoundException("Не найден пользователь с id: " + userId);
+            throw new PreconditionFailedException("Версия вещи с id: " + itemId + " изменилась");
+        }
+
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId));
+        return version + 1;
+    }
+
     @Override
     public ItemDtoResponse getItem(Long userId, Long itemId) {
-        log.info("Получение вещи с id: {}", itemId);
+        log.debug("Получение вещи с id: {}", itemId);
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException("Не найдена вещь с id: " + itemId));
 
         if (!item.getOwner().getId().equals(userId)) {
-            Collection<Booking> bookings = bookingRepository.findByItemId(item.getId());
-            Collection<Comment> comments = commentRepository.findByItemId(item.getId());
-            return toItemDtoResponse(item, bookings, comments);
+            return parallelFetcher.fetch(
+                    () -> bookingRepository.findByItemId(item.getId()),
+                    () -> commentRepository.findByItemId(item.getId()),
+                    (bookings, comments) -> toItemDtoResponse(item, bookings, comments));
         }
 
-        log.info("Найдена вещь: {}", item);
+        log.debug("Найдена вещь: {}", item);
+        return toItemDtoResponseWithBookingsAndComments(item);
+    }
+
+    // Представление владельца с датами бронирований, из которого CoalescingItemServiceImpl
+    // строит ответы для всех, кто одновременно запросил вещь
+    public ItemDtoResponse getOwnerView(Long itemId) {
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new NotFoundException("Не найдена вещь с id: " + itemId));
         return toItemDtoResponseWithBookingsAndComments(item);
     }
 
+    @Override
+    public Map<Long, ItemDtoResponse> getItems(Long userId, Collection<Long> itemIds) {
+        log.debug("Получение вещей по списку id: {}", itemIds);
+        List<Item> items = itemRepository.findAllById(itemIds);
+        if (items.isEmpty()) return Map.of();
+
+        // Бронирования и комментарии всех найденных вещей читаются двумя запросами
+        Set<Long> foundIds = items.stream().map(Item::getId).collect(Collectors.toSet());
+        Map<Long, List<Booking>> bookings = bookingRepository.findByItemIdIn(foundIds).stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+        Map<Long, List<Comment>> comments = commentRepository.findByItemIdIn(foundIds).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
+        List<Long> ownedIds = items.stream()
+                .filter(item -> item.getOwner().getId().equals(userId))
+                .map(Item::getId)
+                .toList();
+        Map<Long, ArchivedBookingDates> archived = ownedIds.isEmpty() ? Map.of()
+                : archivedBookingRepository.findDatesByItemIdIn(ownedIds).stream()
+                .collect(Collectors.toMap(ArchivedBookingDates::getItemId, dates -> dates));
+
+        Map<Long, ItemDtoResponse> result = new HashMap<>();
+        for (Item item : items) {
+            List<Booking> itemBookings = bookings.getOrDefault(item.getId(), List.of());
+            ItemDtoResponse dto = toItemDtoResponse(item, itemBookings,
+                    comments.getOrDefault(item.getId(), List.of()));
+            if (item.getOwner().getId().equals(userId)) {
+                setBookingDates(dto, itemBookings, archived.get(item.getId()));
+            }
+            result.put(item.getId(), dto);
+        }
+        log.debug("Найдено {} вещей из {}", result.size(), itemIds.size());
+        return result;
+    }
+
+    @Override
+    public ItemDto getItemDto(Long itemId) {
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new NotFoundException("Не найдена вещь с id: " + itemId));
+        return toItemDto(item);
+    }
+
+    @Override
+    public Optional<String> getItemETag(Long userId, Long itemId) {
+        // Версия вещи идёт первой: по ней If-Match проверяет условное обновление полей вещи.
+        // Владелец видит ещё и даты бронирований, поэтому его представление помечается отдельно
+        return itemRepository.findContentVersionById(itemId)
+                .map(v -> v.getVersion() + "." + v.getBookingCount() + "." + v.getLastBookingId()
+                        + "." + v.getBookingVersions() + "." + v.getCommentCount() + "." + v.getLastCommentId()
+                        + "." + v.getCommentAuthorVersions() + (v.getOwnerId().equals(userId) ? "-owner" : ""));
+    }
+
     @Override
     public Collection<ItemDtoResponse> getUserItems(Long userId) {
-        log.info("Получение вещей пользователя с id: {}", userId);
-        List<Item> items = new ArrayList<>(itemRepository.findAllByOwnerId(userId));
-        List<ItemDtoResponse> itemDto = items.stream().map(this::toItemDtoResponseWithBookingsAndComments).toList();
+        return getUserItems(userId, 0, DEFAULT_PAGE_SIZE, FieldSet.ALL);
+    }
 
-        log.info("Найдены {} вещи пользователя с id: {}", items.size(), userId);
+    @Override
+    public Collection<ItemDtoResponse> getUserItems(Long userId, int from, int size, FieldSet fields) {
+        ItemQueryEvent event = new ItemQueryEvent();
+        event.begin();
+        log.debug("Получение вещей пользователя с id: {}, from={}, size={}", userId, from, size);
+        List<ItemSummary> items = itemRepository.findSummariesByOwnerId(userId, pageOf(from, size));
+        List<ItemDtoResponse> itemDto = items.stream()
+                .map(item -> toItemDtoResponseWithBookingsAndComments(item, fields))
+                .toList();
+
+        if (event.shouldCommit()) {
+            event.operation = ItemQueryEvent.USER_ITEMS;
+            event.userId = userId;
+            event.from = from;
+            event.size = size;
+            event.resultSize = itemDto.size();
+            event.commit();
+        }
+
+        log.debug("Найдены {} вещи пользователя с id: {}", items.size(), userId);
         return itemDto;
     }
 
     @Override
     public Collection<ItemDtoResponse> getItemsByText(String text) {
+        return getItemsByText(text, 0, DEFAULT_PAGE_SIZE, FieldSet.ALL);
+    }
+
+    @Override
+    public Collection<ItemDtoResponse> getItemsByText(String text, int from, int size, FieldSet fields) {
         if (text.trim().isEmpty()) return Collections.emptyList();
 
-        log.info("Поиск вещей по тексту: {}", text);
+        ItemQueryEvent event = new ItemQueryEvent();
+        event.begin();
+        log.debug("Поиск вещей по тексту: {}, from={}, size={}", text, from, size);
+
+        List<ItemSummary> items = itemRepository.searchAvailableSummaries(text, pageOf(from, size));
 
-        List<Item> items = itemRepository.search(text).stream()
-                .filter(Item::getAvailable)
+        List<ItemDtoResponse> itemDtos = items.stream()
+                .map(item -> toItemDtoResponseWithBookingsAndComments(item, fields))
                 .toList();
 
-        List<ItemDtoResponse> itemDtos = items.stream().map(this::toItemDtoResponseWithBookingsAndComments).toList();
+        if (event.shouldCommit()) {
+            event.operation = ItemQueryEvent.SEARCH;
+            event.textLength = text.length();
+            event.from = from;
+            event.size = size;
+            event.resultSize = itemDtos.size();
+            event.commit();
+        }
 
-        log.info("Найдены {} вещи", items.size());
+        log.debug("Найдены {} вещи", items.size());
         return itemDtos;
     }
 
     @Override
     @Transactional
     public void deleteItem(Long itemId) {
-        log.info("Удаление вещи с id: {}", itemId);
+        log.debug("Удаление вещи с id: {}", itemId);
+        shardOutbox.ifAvailable(outbox -> outbox.enqueueItemBookings(itemId));
         itemRepository.deleteById(itemId);
-        log.info("Вещь удалена: {}", itemId);
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId));
+        log.debug("Вещь удалена: {}", itemId);
+    }
+
+    // from — смещение в строках, как в бронированиях; размер страницы ограничивается и здесь,
+    // чтобы вызовы в обход контроллера не читали весь каталог
+    private static Pageable pageOf(int from, int size) {
+        return OffsetPageRequest.of(from, Math.min(size, MAX_PAGE_SIZE));
     }
 
     private ItemDtoResponse toItemDtoResponseWithBookingsAndComments(Item item) {
-        Collection<Booking> bookings = bookingRepository.findByItemId(item.getId());
-        Collection<Comment> comments = commentRepository.findByItemId(item.getId());
+        return toItemDtoResponseWithBookingsAndComments(item, FieldSet.ALL);
+    }
+
+    private ItemDtoResponse toItemDtoResponseWithBookingsAndComments(Item item, FieldSet fields) {
+        return withBookingsAndComments(item.getId(), fields,
+                (bookings, comments) -> toItemDtoResponse(item, bookings, comments));
+    }
+
+    private ItemDtoResponse toItemDtoResponseWithBookingsAndComments(ItemSummary item, FieldSet fields) {
+        return withBookingsAndComments(item.id(), fields,
+                (bookings, comments) -> toItemDtoResponse(item, bookings, comments));
+    }
+
+    private ItemDtoResponse withBookingsAndComments(
+            Long itemId, FieldSet fields,
+            BiFunction<Collection<Booking>, Collection<Comment>, ItemDtoResponse> mapper
+    ) {
+        // Бронирования и комментарии читаются, только если в ответе есть зависящие от них поля
+        boolean withDates = fields.includesAny("lastBooking", "nextBooking");
+        Supplier<ItemBookings> bookings = fields.includesAny("bookings", "lastBooking", "nextBooking")
+                ? () -> new ItemBookings(bookingRepository.findByItemId(itemId),
+                        withDates ? archivedBookingRepository.findDatesByItemId(itemId).orElse(null) : null)
+                : () -> new ItemBookings(List.of(), null);
+        Supplier<Collection<Comment>> comments = fields.includes("comments")
+                ? () -> commentRepository.findByItemId(itemId)
+                : List::of;
+
+        return parallelFetcher.fetch(bookings, comments, (itemBookings, itemComments) -> {
+            ItemDtoResponse itemDtoResponse = mapper.apply(itemBookings.bookings(), itemComments);
+            setBookingDates(itemDtoResponse, itemBookings.bookings(), itemBookings.archived());
+            return itemDtoResponse;
+        });
+    }
 
-        LocalDateTime lastBookingDate = bookings.stream()
-                .map(Booking::getEndDate)
+    // Даты считаются и по архиву, чтобы перенос старых бронирований не менял ответ
+    private static void setBookingDates(ItemDtoResponse itemDtoResponse, Collection<Booking> bookings,
+                                        ArchivedBookingDates archived) {
+        LocalDateTime lastBookingDate = Stream.concat(
+                        bookings.stream().map(Booking::getEndDate),
+                        Stream.ofNullable(archived).map(ArchivedBookingDates::getLastEnd))
                 .filter(Objects::nonNull)
                 .max(LocalDateTime::compareTo)
                 .orElse(null);
 
-        LocalDateTime nextBookingDate = bookings.stream()
-                .map(Booking::getStartDate)
+        LocalDateTime nextBookingDate = Stream.concat(
+                        bookings.stream().map(Booking::getStartDate),
+                        Stream.ofNullable(archived).map(ArchivedBookingDates::getFirstStart))
                 .filter(Objects::nonNull)
                 .min(LocalDateTime::compareTo)
                 .orElse(null);
 
-        ItemDtoResponse itemDtoResponse = toItemDtoResponse(item, bookings, comments);
         itemDtoResponse.setLastBooking(lastBookingDate);
         itemDtoResponse.setNextBooking(nextBookingDate);
-        return itemDtoResponse;
+    }
+
+    private record ItemBookings(Collection<Booking> bookings, ArchivedBookingDates archived) {
     }
 }
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.item.single-flight")
+public class ItemSingleFlightProperties {
+    private boolean enabled = true;
+
+    // Сколько повторный запрос ждёт чужую загрузку вещи, прежде чем загрузить её сам
+    private Duration waitTimeout = Duration.ofSeconds(5);
+}
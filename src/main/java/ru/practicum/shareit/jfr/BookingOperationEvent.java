@@ -0,0 +1,47 @@
+package ru.practicum.shareit.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Операция с бронированиями. По умолчанию выключено и почти ничего не стоит; включается в записи
+ * настройкой {@code shareit.BookingOperation#enabled=true}.
+ */
+@Name("shareit.BookingOperation")
+@Label("Booking Operation")
+@Category({"ShareIt", "Booking"})
+@Description("Создание, смена статуса и выборка бронирований")
+@Enabled(false)
+@StackTrace(false)
+public class BookingOperationEvent extends Event {
+    public static final String CREATE = "create";
+    public static final String UPDATE_STATUS = "updateStatus";
+    public static final String FIND = "find";
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("User Id")
+    public long userId;
+
+    @Label("Booking Id")
+    public long bookingId;
+
+    @Label("Item Id")
+    public long itemId;
+
+    // Состояние выборки или новый статус бронирования
+    @Label("State")
+    public String state;
+
+    @Label("As Owner")
+    public boolean owner;
+
+    @Label("Result Size")
+    public int resultSize;
+}
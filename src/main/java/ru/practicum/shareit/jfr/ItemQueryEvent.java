@@ -0,0 +1,44 @@
+package ru.practicum.shareit.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Выборка списка вещей: поиск по тексту или вещи владельца. По умолчанию выключено,
+ * включается настройкой {@code shareit.ItemQuery#enabled=true}.
+ */
+@Name("shareit.ItemQuery")
+@Label("Item Query")
+@Category({"ShareIt", "Item"})
+@Description("Поиск вещей и список вещей владельца")
+@Enabled(false)
+@StackTrace(false)
+public class ItemQueryEvent extends Event {
+    public static final String SEARCH = "search";
+    public static final String USER_ITEMS = "userItems";
+
+    @Label("Operation")
+    public String operation;
+
+    // Для поиска не задан
+    @Label("User Id")
+    public long userId;
+
+    // Сам текст запроса в запись не попадает
+    @Label("Text Length")
+    public int textLength;
+
+    @Label("From")
+    public int from;
+
+    @Label("Size")
+    public int size;
+
+    @Label("Result Size")
+    public int resultSize;
+}
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.ratelimit;
+
+import ru.practicum.shareit.exception.ErrorResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final String X_SHARER_USER_ID = "X-Sharer-User-Id";
+    private static final String TOO_MANY_REQUESTS = "Превышен лимит запросов для пользователя с id %d";
+    private static final String TOO_MANY_ANONYMOUS_REQUESTS = "Превышен лимит запросов для адреса %s";
+    private static final String OVERLOADED = "Сервис перегружен, повторите запрос позже";
+
+    private final RateLimitProperties properties;
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Semaphore inFlight;
+
+    public RateLimitFilter(RateLimitProperties properties, RateLimiter rateLimiter, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        this.inFlight = properties.getMaxConcurrentRequests() > 0
+                ? new Semaphore(properties.getMaxConcurrentRequests())
+                : null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // Запросы без пользователя ограничиваются по адресу, иначе без заголовка лимит обходится
+        Long userId = parseUserId(request.getHeader(X_SHARER_USER_ID));
+        String client = userId != null ? "user:" + userId : "addr:" + request.getRemoteAddr();
+        long waitNanos = rateLimiter.tryAcquire(client, budgetFor(request));
+        if (waitNanos > 0) {
+            log.warn("Запрос {} {} клиента {} отклонён лимитом", request.getMethod(), request.getRequestURI(), client);
+            String message = userId != null
+                    ? String.format(TOO_MANY_REQUESTS, userId)
+                    : String.format(TOO_MANY_ANONYMOUS_REQUESTS, request.getRemoteAddr());
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, waitNanos, message);
+            return;
+        }
+
+        if (inFlight == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!inFlight.tryAcquire()) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, TimeUnit.SECONDS.toNanos(1), OVERLOADED);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private RateLimitProperties.Budget budgetFor(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (RateLimitProperties.Budget budget : properties.getEndpoints()) {
+            if ((budget.getMethod() == null || budget.getMethod().equalsIgnoreCase(request.getMethod()))
+                    && pathMatcher.match(budget.getPattern(), path)) {
+                return budget;
+            }
+        }
+        return properties.getDefaultBudget();
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, long waitNanos, String message)
+            throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(message));
+    }
+
+    private static Long parseUserId(String header) {
+        if (header == null) return null;
+        try {
+            return Long.valueOf(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
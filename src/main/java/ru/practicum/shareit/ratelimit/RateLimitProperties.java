@@ -0,0 +1,73 @@
+package ru.practicum.shareit.ratelimit;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@Validated
+@ConfigurationProperties(prefix = "shareit.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+
+    // Бюджет для эндпоинтов, не перечисленных в endpoints
+    @Valid
+    @NotNull
+    private Budget defaultBudget = new Budget("default", null, null, 100, 50);
+
+    @Valid
+    private List<Budget> endpoints = new ArrayList<>();
+
+    // Корзины неактивных пользователей удаляются, чтобы память оставалась ограниченной
+    @NotNull
+    private Duration idleExpiry = Duration.ofMinutes(10);
+
+    @Positive
+    private long maxTrackedBuckets = 100_000;
+
+    // Ограничение одновременно обрабатываемых запросов, 0 - без ограничения
+    @Min(0)
+    private int maxConcurrentRequests = 0;
+
+    // Бюджет эндпоинта без шаблона пути не сопоставится ни с одним запросом
+    @AssertTrue(message = "у каждого бюджета в endpoints должен быть задан pattern")
+    public boolean isEndpointPatternsSet() {
+        return endpoints.stream().allMatch(budget -> budget.getPattern() != null && !budget.getPattern().isBlank());
+    }
+
+    @Getter
+    @Setter
+    public static class Budget {
+        @NotBlank
+        private String name;
+        private String method;
+        private String pattern;
+        @Min(1)
+        private long capacity;
+        @Positive
+        private double refillPerSecond;
+
+        public Budget() {
+        }
+
+        public Budget(String name, String method, String pattern, long capacity, double refillPerSecond) {
+            this.name = name;
+            this.method = method;
+            this.pattern = pattern;
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.function.LongSupplier;
+
+public class RateLimiter {
+    private final Cache<BucketKey, TokenBucket> buckets;
+    private final LongSupplier nanoClock;
+
+    public RateLimiter(RateLimitProperties properties, LongSupplier nanoClock) {
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(properties.getIdleExpiry())
+                .maximumSize(properties.getMaxTrackedBuckets())
+                .build();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Клиент - пользователь из X-Sharer-User-Id или, для анонимных запросов, адрес отправителя.
+     * Возвращает 0, если запрос укладывается в бюджет, иначе время ожидания в наносекундах.
+     */
+    public long tryAcquire(String client, RateLimitProperties.Budget budget) {
+        long now = nanoClock.getAsLong();
+        TokenBucket bucket = buckets.get(new BucketKey(client, budget.getName()),
+                key -> new TokenBucket(budget.getCapacity(), budget.getRefillPerSecond(), now));
+        return bucket.tryAcquire(now);
+    }
+
+    private record BucketKey(String client, String budget) {
+    }
+}
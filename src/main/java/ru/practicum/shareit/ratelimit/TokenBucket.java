@@ -0,0 +1,35 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Корзина токенов без блокировок, реализованная по алгоритму GCRA: всё состояние -
+ * одно число, теоретическое время прихода следующего запроса, обновляемое через CAS.
+ */
+public class TokenBucket {
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(long capacity, double refillPerSecond, long nowNanos) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Ёмкость корзины и скорость пополнения должны быть положительными");
+        }
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / refillPerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Возвращает 0, если запрос разрешён, иначе через сколько наносекунд появится свободный токен.
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long arrival = Math.max(current, nowNanos);
+            long waitNanos = arrival - burstToleranceNanos - nowNanos;
+            if (waitNanos > 0) return waitNanos;
+            if (theoreticalArrival.compareAndSet(current, arrival + emissionIntervalNanos)) return 0;
+        }
+    }
+}
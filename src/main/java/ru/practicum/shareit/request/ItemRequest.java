@@ -2,6 +2,7 @@ package ru.practicum.shareit.request;
 
 import jakarta.persistence.*;
 import lombok.*;
+import ru.practicum.shareit.common.BaseEntity;
 import ru.practicum.shareit.user.model.User;
 
 /**
@@ -11,28 +12,16 @@ import ru.practicum.shareit.user.model.User;
 @NoArgsConstructor
 @Getter
 @Setter
-@ToString
+@ToString(onlyExplicitlyIncluded = true)
 @Table(name = "requests")
-public class ItemRequest {
+public class ItemRequest extends BaseEntity {
     @Id
+    @ToString.Include
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     private String description;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @ToString.Exclude
     private User requestor;
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (!(o instanceof ItemRequest)) return false;
-        return id != null && id.equals(((ItemRequest) o).getId());
-    }
-
-    @Override
-    public int hashCode() {
-        return getClass().hashCode();
-    }
 }
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.requestlog;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+@Configuration
+@EnableConfigurationProperties(RequestLogProperties.class)
+@ConditionalOnProperty(prefix = "shareit.request-log", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RequestLogConfig {
+
+    @Bean
+    public FilterRegistrationBean<RequestLogFilter> requestLogFilter(RequestLogProperties properties) {
+        FilterRegistrationBean<RequestLogFilter> registration = new FilterRegistrationBean<>(
+                new RequestLogFilter(properties, System::nanoTime, () -> ThreadLocalRandom.current().nextDouble()));
+        // Сразу после ограничителя запросов: отклонённые им запросы он журналирует сам
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.requestlog;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.event.Level;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Одна структурированная запись на запрос вместо журналирования в каждом контроллере.
+ * Обычные запросы попадают в журнал по выборке, медленные и завершившиеся 5xx - всегда.
+ */
+@Slf4j
+public class RequestLogFilter extends OncePerRequestFilter {
+    private static final String X_SHARER_USER_ID = "X-Sharer-User-Id";
+
+    private final RequestLogProperties properties;
+    private final LongSupplier nanoTime;
+    private final DoubleSupplier random;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final long slowThresholdNanos;
+
+    public RequestLogFilter(RequestLogProperties properties, LongSupplier nanoTime, DoubleSupplier random) {
+        this.properties = properties;
+        this.nanoTime = nanoTime;
+        this.random = random;
+        this.slowThresholdNanos = properties.getSlowThreshold().toNanos();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = nanoTime.getAsLong();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long elapsed = nanoTime.getAsLong() - start;
+            int status = response.getStatus();
+            boolean slow = elapsed >= slowThresholdNanos;
+            if (slow || status >= 500 || random.getAsDouble() < sampleRateFor(request)) {
+                log.atLevel(slow || status >= 500 ? Level.WARN : Level.INFO)
+                        .addKeyValue("method", request.getMethod())
+                        .addKeyValue("uri", request.getRequestURI())
+                        .addKeyValue("status", status)
+                        .addKeyValue("durationMs", elapsed / 1_000_000)
+                        .addKeyValue("userId", request.getHeader(X_SHARER_USER_ID))
+                        .addKeyValue("slow", slow)
+                        .log("{} {} -> {} за {} мс", request.getMethod(), request.getRequestURI(), status,
+                                elapsed / 1_000_000);
+            }
+        }
+    }
+
+    private double sampleRateFor(HttpServletRequest request) {
+        for (RequestLogProperties.Endpoint endpoint : properties.getEndpoints()) {
+            if (endpoint.getMethod() != null && !endpoint.getMethod().equalsIgnoreCase(request.getMethod())) continue;
+            if (pathMatcher.match(endpoint.getPattern(), request.getRequestURI())) return endpoint.getSampleRate();
+        }
+        return properties.getSampleRate();
+    }
+}
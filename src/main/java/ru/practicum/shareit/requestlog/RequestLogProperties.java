@@ -0,0 +1,32 @@
+package ru.practicum.shareit.requestlog;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.request-log")
+public class RequestLogProperties {
+    private boolean enabled = true;
+
+    // Доля журналируемых запросов для эндпоинтов, не перечисленных в endpoints
+    private double sampleRate = 1.0;
+
+    private List<Endpoint> endpoints = new ArrayList<>();
+
+    // Медленные запросы и ответы 5xx журналируются всегда, независимо от выборки
+    private Duration slowThreshold = Duration.ofMillis(500);
+
+    @Getter
+    @Setter
+    public static class Endpoint {
+        private String method;
+        private String pattern;
+        private double sampleRate;
+    }
+}
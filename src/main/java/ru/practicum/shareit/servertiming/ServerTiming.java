@@ -0,0 +1,130 @@
+package ru.practicum.shareit.servertiming;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Накопитель времён фаз запроса для заголовка Server-Timing. Живёт в ThreadLocal только у запросов
+ * с отладочным заголовком, у остальных каждая точка замера сводится к одному ThreadLocal.get().
+ * Задачи, отданные запросом в пул, пишут в тот же накопитель, поэтому изменения синхронизированы,
+ * а текущий репозиторий отслеживается для каждого потока отдельно.
+ */
+public final class ServerTiming {
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<Metric> CURRENT_REPOSITORY = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Metric> repositories = new LinkedHashMap<>();
+    private final Metric db = new Metric();
+    private final Metric lazy = new Metric();
+    private long bodyWriteNanos;
+
+    private ServerTiming() {
+    }
+
+    static ServerTiming begin() {
+        ServerTiming timing = new ServerTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    static void end() {
+        CURRENT.remove();
+        CURRENT_REPOSITORY.remove();
+    }
+
+    // Задача из пула замеряется в накопитель запроса, который её отдал
+    public static Runnable withCurrent(Runnable task) {
+        ServerTiming timing = CURRENT.get();
+        if (timing == null) return task;
+
+        return () -> {
+            CURRENT.set(timing);
+            try {
+                task.run();
+            } finally {
+                end();
+            }
+        };
+    }
+
+    // Вызывается обёрткой DataSource после каждого выполненного запроса
+    public static void statementExecuted(long nanos) {
+        ServerTiming timing = CURRENT.get();
+        if (timing == null) return;
+
+        Metric repository = CURRENT_REPOSITORY.get();
+        synchronized (timing) {
+            timing.db.add(nanos);
+            // Запросы вне вызова репозитория - это ленивые загрузки связей, например в мапперах
+            if (repository != null) {
+                repository.statements++;
+            } else {
+                timing.lazy.add(nanos);
+            }
+        }
+    }
+
+    static Object repositoryCall(String name, MethodInvocation invocation) throws Throwable {
+        ServerTiming timing = CURRENT.get();
+        if (timing == null || CURRENT_REPOSITORY.get() != null) return invocation.proceed();
+
+        Metric metric;
+        synchronized (timing) {
+            metric = timing.repositories.computeIfAbsent(name, key -> new Metric());
+        }
+        CURRENT_REPOSITORY.set(metric);
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            synchronized (timing) {
+                metric.nanos += System.nanoTime() - start;
+                metric.calls++;
+            }
+            CURRENT_REPOSITORY.remove();
+        }
+    }
+
+    static void bodyWriteStarted() {
+        ServerTiming timing = CURRENT.get();
+        if (timing != null && timing.bodyWriteNanos == 0) timing.bodyWriteNanos = System.nanoTime();
+    }
+
+    synchronized String toHeader() {
+        long end = System.nanoTime();
+        StringJoiner header = new StringJoiner(", ");
+        repositories.forEach((name, metric) -> header.add(entry(name,
+                metric.calls + " calls, " + metric.statements + " statements", metric.nanos)));
+        header.add(entry("lazy", lazy.statements + " statements", lazy.nanos));
+        header.add(entry("db", db.statements + " statements", db.nanos));
+        if (bodyWriteNanos != 0) {
+            header.add(entry("handler", null, bodyWriteNanos - startNanos));
+            header.add(entry("serialization", null, end - bodyWriteNanos));
+        }
+        header.add(entry("total", null, end - startNanos));
+        return header.toString();
+    }
+
+    private static String entry(String name, String description, long nanos) {
+        String duration = String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+        return description == null
+                ? name + ";dur=" + duration
+                : name + ";desc=\"" + description + "\";dur=" + duration;
+    }
+
+    private static final class Metric {
+        private long nanos;
+        private int calls;
+        private int statements;
+
+        private void add(long elapsed) {
+            nanos += elapsed;
+            statements++;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.servertiming;
+
+import ru.practicum.shareit.slowquery.SlowQueryDataSource;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties(ServerTimingProperties.class)
+@ConditionalOnProperty(prefix = "shareit.server-timing", name = "enabled", havingValue = "true")
+public class ServerTimingConfig {
+
+    // Запросы к базе считает обёртка SlowQueryDataSource; без неё фаза db молча показывала бы ноль
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(ServerTimingProperties properties,
+                                                                         @Qualifier("dataSource") DataSource dataSource) {
+        if (!(dataSource instanceof SlowQueryDataSource)) {
+            throw new IllegalStateException("Server-Timing требует shareit.slow-query.enabled=true: "
+                    + "без обёртки SlowQueryDataSource запросы к базе не учитываются");
+        }
+        FilterRegistrationBean<ServerTimingFilter> registration =
+                new FilterRegistrationBean<>(new ServerTimingFilter(properties));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+
+    @Bean
+    public TaskDecorator serverTimingTaskDecorator() {
+        return ServerTiming::withCurrent;
+    }
+
+    // Каждый метод репозитория замеряется отдельной фазой с числом выполненных в нём запросов
+    @Bean
+    public static BeanPostProcessor serverTimingRepositoryPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> {
+                                String repository = repositoryInformation.getRepositoryInterface().getSimpleName();
+                                proxyFactory.addAdvice((MethodInterceptor) invocation -> ServerTiming.repositoryCall(
+                                        repository + "." + invocation.getMethod().getName(), invocation));
+                            }));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.servertiming;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+@RequiredArgsConstructor
+public class ServerTimingFilter extends OncePerRequestFilter {
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    private final ServerTimingProperties properties;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (request.getHeader(properties.getRequestHeader()) == null
+                || !properties.getTrustedAddresses().contains(request.getRemoteAddr())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        // Тело буферизуется, чтобы заголовок можно было добавить после сериализации
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        ServerTiming timing = ServerTiming.begin();
+        try {
+            chain.doFilter(request, wrapper);
+            response.setHeader(SERVER_TIMING, timing.toHeader());
+        } finally {
+            ServerTiming.end();
+            wrapper.copyBodyToResponse();
+        }
+    }
+}
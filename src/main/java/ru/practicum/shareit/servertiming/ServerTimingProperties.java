@@ -0,0 +1,21 @@
+package ru.practicum.shareit.servertiming;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Set;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.server-timing")
+public class ServerTimingProperties {
+    // Заголовок раскрывает имена методов репозиториев, поэтому по умолчанию выключен
+    private boolean enabled = false;
+
+    // Замер включается только для запросов с этим заголовком
+    private String requestHeader = "X-Server-Timing";
+
+    // Адреса, которым разрешено запрашивать замер; остальные получают обычный ответ
+    private Set<String> trustedAddresses = Set.of("127.0.0.1", "0:0:0:0:0:0:0:1");
+}
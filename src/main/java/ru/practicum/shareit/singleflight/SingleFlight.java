@@ -0,0 +1,94 @@
+package ru.practicum.shareit.singleflight;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Объединяет одновременные одинаковые загрузки: пока загрузка по ключу выполняется,
+ * остальные вызовы с тем же ключом ждут её результат. Результат не кэшируется после завершения.
+ * Ожидание ограничено waitTimeout: если загрузка зависла, вызов загружает значение сам.
+ */
+@Slf4j
+public class SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final String name;
+    private final Duration waitTimeout;
+    private final Counter executed;
+    private final Counter coalesced;
+    private final Counter timedOut;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry, Duration waitTimeout) {
+        this.name = name;
+        this.waitTimeout = waitTimeout;
+        this.executed = Counter.builder("shareit.singleflight.calls")
+                .tag("name", name)
+                .tag("result", "executed")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("shareit.singleflight.calls")
+                .tag("name", name)
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        this.timedOut = Counter.builder("shareit.singleflight.calls")
+                .tag("name", name)
+                .tag("result", "timeout")
+                .register(meterRegistry);
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+
+        if (existing != null) {
+            coalesced.increment();
+            try {
+                return existing.get(waitTimeout.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // Зависшая загрузка не должна держать все вызовы с тем же ключом
+                timedOut.increment();
+                log.warn("Загрузка {} по ключу {} не завершилась за {}, значение загружается повторно",
+                        name, key, waitTimeout);
+                return loader.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Прервано ожидание загрузки " + name + " по ключу " + key, e);
+            }
+        }
+
+        executed.increment();
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    public double getExecutedCount() {
+        return executed.count();
+    }
+
+    public double getCoalescedCount() {
+        return coalesced.count();
+    }
+
+    public double getTimedOutCount() {
+        return timedOut.count();
+    }
+}
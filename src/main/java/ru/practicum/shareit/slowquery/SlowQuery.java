@@ -0,0 +1,25 @@
+package ru.practicum.shareit.slowquery;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Одно выполнение запроса дольше порога. План дописывается позже, когда отработает EXPLAIN.
+ */
+@Getter
+@RequiredArgsConstructor
+public class SlowQuery {
+    private final String sql;
+    private final List<String> binds;
+    private final long durationMs;
+    private final String caller;
+    private final Instant executedAt;
+    private volatile String plan;
+
+    void setPlan(String plan) {
+        this.plan = plan;
+    }
+}
@@ -0,0 +1,115 @@
+package ru.practicum.shareit.slowquery;
+
+import ru.practicum.shareit.servertiming.ServerTiming;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Обёртка над DataSource, замеряющая выполнение каждого запроса и передающая медленные в SlowQueryLog.
+ * Параметры PreparedStatement запоминаются при вызовах setXxx, чтобы показать их вместе с запросом.
+ */
+public class SlowQueryDataSource extends DelegatingDataSource implements AutoCloseable {
+    private final SlowQueryLog slowQueryLog;
+
+    public SlowQueryDataSource(DataSource target, SlowQueryLog slowQueryLog) {
+        super(target);
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    // Обёртка заменяет бин пула, поэтому закрытие пула при остановке контекста передаётся ему
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) closeable.close();
+    }
+
+    private Connection wrap(Connection connection) {
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            String name = method.getName();
+            if (name.equals("prepareStatement")) {
+                return statement(PreparedStatement.class, (Statement) result, (String) args[0]);
+            }
+            if (name.equals("prepareCall")) {
+                return statement(CallableStatement.class, (Statement) result, (String) args[0]);
+            }
+            if (name.equals("createStatement")) {
+                return statement(Statement.class, (Statement) result, null);
+            }
+            return result;
+        });
+    }
+
+    private <S extends Statement> S statement(Class<S> type, Statement target, String preparedSql) {
+        List<Object> binds = new ArrayList<>();
+        return proxy(type, target, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                remember(binds, index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                binds.clear();
+            }
+            if (!name.startsWith("execute")) return invoke(target, method, args);
+
+            long start = System.nanoTime();
+            try {
+                return invoke(target, method, args);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                ServerTiming.statementExecuted(elapsed);
+                if (slowQueryLog.isSlow(elapsed)) {
+                    String sql = preparedSql != null ? preparedSql : (args != null ? (String) args[0] : "batch");
+                    slowQueryLog.record(sql, new ArrayList<>(binds), elapsed, getTargetDataSource());
+                }
+            }
+        });
+    }
+
+    private static void remember(List<Object> binds, int index, Object value) {
+        while (binds.size() < index) {
+            binds.add(null);
+        }
+        binds.set(index - 1, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "SlowQuery(" + target + ")";
+                    default -> handler.invoke(proxy, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package ru.practicum.shareit.slowquery;
+
+import ru.practicum.shareit.servertiming.ServerTiming;
+import ru.practicum.shareit.tracing.TracingInterceptor;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Самые медленные выполнения запросов с параметрами, вызывающим методом и планом.
+ */
+@Slf4j
+public class SlowQueryLog implements AutoCloseable {
+    // Инфраструктурные пакеты приложения, чьи кадры стоят между сервисом и JDBC
+    private static final List<String> SKIPPED_PACKAGES = List.of(
+            SlowQueryLog.class.getPackageName() + ".",
+            ServerTiming.class.getPackageName() + ".",
+            TracingInterceptor.class.getPackageName() + ".");
+    private static final String APP_PACKAGE = "ru.practicum.shareit.";
+
+    private final SlowQueryProperties properties;
+    private final long thresholdNanos;
+    private final PriorityQueue<SlowQuery> slowest = new PriorityQueue<>(Comparator.comparingLong(SlowQuery::getDurationMs));
+    private final ThreadPoolExecutor explainExecutor;
+    private volatile Boolean explainSupported;
+
+    public SlowQueryLog(SlowQueryProperties properties) {
+        this.properties = properties;
+        this.thresholdNanos = properties.getThreshold().toNanos();
+        // Очередь ограничена: при лавине медленных запросов лишние EXPLAIN просто пропускаются
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(100), r -> {
+                    Thread thread = new Thread(r, "slow-query-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    public boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= thresholdNanos;
+    }
+
+    public void record(String sql, List<Object> binds, long elapsedNanos, DataSource target) {
+        SlowQuery query = new SlowQuery(sql, render(binds), elapsedNanos / 1_000_000, findCaller(), Instant.now());
+        log.warn("Медленный запрос {} мс из {}: {} {}", query.getDurationMs(), query.getCaller(), sql, query.getBinds());
+
+        synchronized (slowest) {
+            if (slowest.size() < properties.getTopN()) {
+                slowest.add(query);
+            } else if (slowest.peek().getDurationMs() < query.getDurationMs()) {
+                slowest.poll();
+                slowest.add(query);
+            } else {
+                return;
+            }
+        }
+
+        if (properties.isExplain() && !Boolean.FALSE.equals(explainSupported) && isSelect(sql)) {
+            List<Object> values = new ArrayList<>(binds);
+            explainExecutor.execute(() -> query.setPlan(explain(target, sql, values)));
+        }
+    }
+
+    public List<SlowQuery> getSlowest() {
+        synchronized (slowest) {
+            return slowest.stream()
+                    .sorted(Comparator.comparingLong(SlowQuery::getDurationMs).reversed())
+                    .toList();
+        }
+    }
+
+    public void clear() {
+        synchronized (slowest) {
+            slowest.clear();
+        }
+    }
+
+    private List<String> render(List<Object> binds) {
+        List<String> rendered = new ArrayList<>(binds.size());
+        for (Object value : binds) {
+            if (properties.isRedactBinds()) {
+                rendered.add("?");
+            } else {
+                String text = String.valueOf(value);
+                rendered.add(text.length() > properties.getMaxBindLength()
+                        ? text.substring(0, properties.getMaxBindLength()) + "..."
+                        : text);
+            }
+        }
+        return rendered;
+    }
+
+    // Первый кадр приложения вне инфраструктурных пакетов: обычно метод сервиса, вызвавший репозиторий
+    private static String findCaller() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APP_PACKAGE)
+                        && SKIPPED_PACKAGES.stream().noneMatch(frame.getClassName()::startsWith)
+                        && !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1)
+                        + "." + frame.getMethodName())
+                .orElse("неизвестно"));
+    }
+
+    private static boolean isSelect(String sql) {
+        String trimmed = sql.stripLeading();
+        return trimmed.regionMatches(true, 0, "select", 0, 6) || trimmed.regionMatches(true, 0, "with", 0, 4);
+    }
+
+    private String explain(DataSource target, String sql, List<Object> binds) {
+        try (Connection connection = target.getConnection()) {
+            if (explainSupported == null) {
+                explainSupported = "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+            }
+            if (!explainSupported) return null;
+
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (int i = 0; i < binds.size(); i++) {
+                    statement.setObject(i + 1, binds.get(i));
+                }
+                StringJoiner plan = new StringJoiner("\n");
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        plan.add(resultSet.getString(1));
+                    }
+                }
+                return plan.toString();
+            }
+        } catch (SQLException e) {
+            log.debug("Не удалось получить план запроса: {}", e.getMessage());
+            return "План недоступен: " + e.getMessage();
+        }
+    }
+
+    @Override
+    public void close() {
+        explainExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.slowquery;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.slow-query")
+public class SlowQueryProperties {
+    private boolean enabled = true;
+
+    private Duration threshold = Duration.ofMillis(200);
+
+    // Сколько самых медленных выполнений хранится для эндпоинта slowqueries
+    private int topN = 50;
+
+    // Значения параметров заменяются на "?", если в них могут оказаться персональные данные
+    private boolean redactBinds = false;
+
+    private int maxBindLength = 100;
+
+    // План запрашивается асинхронно и только для PostgreSQL
+    private boolean explain = true;
+}
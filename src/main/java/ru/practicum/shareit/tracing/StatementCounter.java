@@ -0,0 +1,28 @@
+package ru.practicum.shareit.tracing;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Считает SQL-запросы, подготовленные Hibernate в текущем потоке. Спан берёт разницу счётчика
+ * до и после вызова, поэтому вложенные вызовы и ленивые загрузки попадают во все объемлющие спаны.
+ * Запросы задач в пулах досчитываются в счётчик потока, отдавшего задачу, см. TracingTaskDecorator.
+ */
+public class StatementCounter implements StatementInspector {
+    private static final ThreadLocal<AtomicLong> COUNT = ThreadLocal.withInitial(AtomicLong::new);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get().incrementAndGet();
+        return sql;
+    }
+
+    static long current() {
+        return COUNT.get().get();
+    }
+
+    static AtomicLong counter() {
+        return COUNT.get();
+    }
+}
@@ -0,0 +1,85 @@
+package ru.practicum.shareit.tracing;
+
+import io.micrometer.tracing.Tracer;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Спаны контроллер -> сервис -> репозиторий поверх HTTP-спана Spring MVC. Трассировка включается
+ * свойством management.tracing.enabled, доля трасс задаётся management.tracing.sampling.probability,
+ * экспорт по OTLP - адресом management.otlp.tracing.endpoint или собственным бином SpanExporter.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "management.tracing", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TracingConfig {
+    private static final String HIBERNATE_STATEMENT_INSPECTOR = "hibernate.session_factory.statement_inspector";
+
+    @Bean
+    public static Advisor controllerTracingAdvisor(ObjectProvider<Tracer> tracer) {
+        return advisor("@within(org.springframework.web.bind.annotation.RestController)",
+                new TracingInterceptor(tracer, "controller", TracingConfig::methodName));
+    }
+
+    @Bean
+    public static Advisor serviceTracingAdvisor(ObjectProvider<Tracer> tracer) {
+        return advisor("@within(org.springframework.stereotype.Service)",
+                new TracingInterceptor(tracer, "service", TracingConfig::methodName));
+    }
+
+    // Прокси репозиториев создаются фабрикой Spring Data, поэтому перехватчик добавляется через неё
+    @Bean
+    public static BeanPostProcessor repositoryTracingPostProcessor(ObjectProvider<Tracer> tracer) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> {
+                                String repository = repositoryInformation.getRepositoryInterface().getSimpleName();
+                                proxyFactory.addAdvice(new TracingInterceptor(tracer, "repository",
+                                        invocation -> repository + "." + invocation.getMethod().getName()));
+                            }));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public TaskDecorator tracingTaskDecorator(ObjectProvider<Tracer> tracer) {
+        return new TracingTaskDecorator(tracer);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer() {
+        return properties -> properties.put(HIBERNATE_STATEMENT_INSPECTOR, new StatementCounter());
+    }
+
+    private static Advisor advisor(String annotationExpression, TracingInterceptor interceptor) {
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+        pointcut.setExpression("within(ru.practicum.shareit..*) && " + annotationExpression);
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, interceptor);
+        // Спан сервиса охватывает и транзакцию, включая запросы при её фиксации
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    private static String methodName(MethodInvocation invocation) {
+        Class<?> type = invocation.getThis() != null
+                ? ClassUtils.getUserClass(invocation.getThis())
+                : invocation.getMethod().getDeclaringClass();
+        return type.getSimpleName() + "." + invocation.getMethod().getName();
+    }
+}
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.tracing;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.function.Function;
+
+/**
+ * Оборачивает вызов метода в дочерний спан с числом выполненных в нём SQL-запросов.
+ * Спаны создаются только внутри выбранной сэмплированием трассы: в остальных запросах
+ * перехватчик сводится к проверке текущего спана.
+ */
+public class TracingInterceptor implements MethodInterceptor {
+    public static final String LAYER_TAG = "shareit.layer";
+    public static final String STATEMENTS_TAG = "db.statements";
+
+    private final ObjectProvider<Tracer> tracer;
+    private final String layer;
+    private final Function<MethodInvocation, String> spanName;
+
+    public TracingInterceptor(ObjectProvider<Tracer> tracer, String layer,
+                              Function<MethodInvocation, String> spanName) {
+        this.tracer = tracer;
+        this.layer = layer;
+        this.spanName = spanName;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Tracer tracer = this.tracer.getIfAvailable();
+        Span parent = tracer != null ? tracer.currentSpan() : null;
+        if (parent == null || parent.isNoop()) return invocation.proceed();
+
+        Span span = tracer.nextSpan()
+                .name(spanName.apply(invocation))
+                .tag(LAYER_TAG, layer)
+                .start();
+        long statements = StatementCounter.current();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.tag(STATEMENTS_TAG, StatementCounter.current() - statements);
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.tracing;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Переносит текущий спан в поток пула, чтобы спаны задачи стали его дочерними. Запросы, выполненные
+ * задачей, прибавляются к счётчику отдавшего её потока: иначе спан сервиса, дождавшийся задачи, их бы не увидел.
+ */
+public class TracingTaskDecorator implements TaskDecorator {
+    private final ObjectProvider<Tracer> tracer;
+
+    public TracingTaskDecorator(ObjectProvider<Tracer> tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public Runnable decorate(Runnable task) {
+        Tracer tracer = this.tracer.getIfAvailable();
+        Span span = tracer != null ? tracer.currentSpan() : null;
+        AtomicLong callerStatements = StatementCounter.counter();
+        return () -> {
+            long statements = StatementCounter.current();
+            try (Tracer.SpanInScope ignored = span != null ? tracer.withSpan(span) : null) {
+                task.run();
+            } finally {
+                callerStatements.addAndGet(StatementCounter.current() - statements);
+            }
+        };
+    }
+}
@@ -1,7 +1,12 @@
 package ru.practicum.shareit.user;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.common.BatchEntry;
+import ru.practicum.shareit.common.ETags;
 import ru.practicum.shareit.exception.Create;
 import ru.practicum.shareit.exception.Update;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -11,8 +16,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 @Slf4j
 @RestController
@@ -23,32 +33,54 @@ public class UserController {
 
     @GetMapping
     public Collection<UserDto> getAllUsers() {
-        log.info("GET /users - получение всех пользователей");
+        log.debug("GET /users - получение всех пользователей");
         return userService.getAllUsers();
     }
 
+    @GetMapping(params = "ids")
+    public List<BatchEntry<UserDto>> getUsersByIds(@RequestParam @Size(max = BatchEntry.MAX_IDS) List<Long> ids) {
+        log.debug("GET /users?ids={} - пакетный запрос пользователей", ids);
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        return BatchEntry.of(uniqueIds, userService.getUsers(uniqueIds), id -> "Не найден пользователь с id: " + id);
+    }
+
     @GetMapping("/{userId}")
-    public UserDto getUserById(@PathVariable("userId") Long userId) {
-        log.info("GET /users/{} - получение пользователя по id", userId);
+    public UserDto getUserById(@PathVariable("userId") Long userId, WebRequest request) {
+        log.debug("GET /users/{} - получение пользователя по id", userId);
+        Optional<String> eTag = userService.getUserETag(userId);
+        if (eTag.isPresent() && request.checkNotModified(eTag.get())) return null;
+
         return userService.getUserById(userId);
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public UserDto createUser(@Validated({Create.class}) @Valid @RequestBody UserDto user) {
-        log.info("POST /users - создание нового пользователя: {}", user);
+        log.debug("POST /users - создание нового пользователя: {}", user);
         return userService.createUser(user);
     }
 
     @PatchMapping("/{userId}")
-    public UserDto updateUserById(@Validated({Update.class}) @RequestBody UserDto userDto, @PathVariable("userId") Long userId) {
-        log.info("PATCH /users/{} - обновление пользователя: {}", userId, userDto);
-        return userService.updateUserById(userDto, userId);
+    public ResponseEntity<UserDto> updateUserById(
+            @Validated({Update.class}) @RequestBody UserDto userDto,
+            @PathVariable("userId") Long userId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = ETags.PREFER, required = false) String prefer
+    ) {
+        log.debug("PATCH /users/{} - обновление пользователя: {}", userId, userDto);
+        if (ifMatch == null || ETags.ANY.equals(ifMatch.trim())) {
+            return ResponseEntity.ok(userService.updateUserById(userDto, userId));
+        }
+
+        long version = userService.updateUserIfVersionMatches(userDto, userId, ETags.parseVersion(ifMatch));
+        String eTag = ETags.nextVersion(ifMatch, version);
+        if (ETags.isMinimalReturnPreferred(prefer)) return ResponseEntity.noContent().eTag(eTag).build();
+        return ResponseEntity.ok().eTag(eTag).body(userService.getUserById(userId));
     }
 
     @DeleteMapping("/{userId}")
     public void deleteUser(@PathVariable("userId") Long userId) {
-        log.info("DELETE /users/{} - удаление пользователя", userId);
+        log.debug("DELETE /users/{} - удаление пользователя", userId);
         userService.deleteUser(userId);
     }
 }
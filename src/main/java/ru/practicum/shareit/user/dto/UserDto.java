@@ -8,11 +8,14 @@ import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.ToString;
 
 @Data
+@ToString(onlyExplicitlyIncluded = true)
 @Builder
 @AllArgsConstructor
 public class UserDto {
+    @ToString.Include
     private Long id;
 
     @NotBlank(message = "Имя пользователя не должно быть пустым")
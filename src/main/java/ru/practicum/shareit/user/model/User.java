@@ -1,5 +1,6 @@
 package ru.practicum.shareit.user.model;
 
+import ru.practicum.shareit.common.BaseEntity;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -7,10 +8,11 @@ import lombok.*;
 @NoArgsConstructor
 @Getter
 @Setter
-@ToString
+@ToString(onlyExplicitlyIncluded = true)
 @Table(name = "users")
-public class User {
+public class User extends BaseEntity {
     @Id
+    @ToString.Include
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     private String name;
@@ -18,15 +20,6 @@ public class User {
     @Column(name = "email", unique = true)
     private String email;
 
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (!(o instanceof User)) return false;
-        return id != null && id.equals(((User) o).getId());
-    }
-
-    @Override
-    public int hashCode() {
-        return getClass().hashCode();
-    }
+    @Version
+    private Long version;
 }
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.user.repository;
+
+import java.util.Map;
+
+public interface UserRepositoryCustom {
+    // Обновляет только переданные поля, если версия совпала; возвращает число строк
+    int updateIfVersionMatches(Long userId, long version, Map<String, Object> changes);
+}
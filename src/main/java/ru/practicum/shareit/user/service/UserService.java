@@ -3,15 +3,23 @@ package ru.practicum.shareit.user.service;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
 
 public interface UserService {
     Collection<UserDto> getAllUsers();
 
     UserDto getUserById(Long userId);
 
+    Map<Long, UserDto> getUsers(Collection<Long> userIds);
+
+    Optional<String> getUserETag(Long userId);
+
     UserDto createUser(UserDto userDto);
 
     UserDto updateUserById(UserDto userDto, Long userId);
 
+    long updateUserIfVersionMatches(UserDto userDto, Long userId, long version);
+
     void deleteUser(Long userId);
 }
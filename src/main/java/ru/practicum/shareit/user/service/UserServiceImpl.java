@@ -1,6 +1,9 @@
 package ru.practicum.shareit.user.service;
 
+import ru.practicum.shareit.booking.shard.BookingShardOutbox;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.PreconditionFailedException;
+import ru.practicum.shareit.item.cache.ItemChangedEvent;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.repository.UserRepository;
@@ -8,75 +11,124 @@ import ru.practicum.shareit.user.dto.UserDto;
 import static ru.practicum.shareit.user.UserMapper.*;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    // Есть, только если включено шардирование бронирований
+    private final ObjectProvider<BookingShardOutbox> shardOutbox;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, ApplicationEventPublisher eventPublisher,
+                           ObjectProvider<BookingShardOutbox> shardOutbox) {
         this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.shardOutbox = shardOutbox;
     }
 
     @Override
     public Collection<UserDto> getAllUsers() {
-        log.info("Получение всех пользователей");
+        log.debug("Получение всех пользователей");
         List<User> users = new ArrayList<>(userRepository.findAll());
-        log.info("Найдено {} пользователей", users.size());
+        log.debug("Найдено {} пользователей", users.size());
         return users.stream()
                 .map(UserMapper::toUserDto)
                 .toList();
     }
 
+    @Override
+    public Map<Long, UserDto> getUsers(Collection<Long> userIds) {
+        log.debug("Получение пользователей по списку id: {}", userIds);
+        return userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, UserMapper::toUserDto));
+    }
+
+    @Override
+    public Optional<String> getUserETag(Long userId) {
+        return userRepository.findVersionById(userId).map(String::valueOf);
+    }
+
     @Override
     public UserDto getUserById(Long userId) {
-        log.info("Получение пользователя с id: {}", userId);
+        log.debug("Получение пользователя с id: {}", userId);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("Не найден пользователь с id: " + userId));
-        log.info("Пользователь найден: {}", user);
+        log.debug("Пользователь найден: {}", user);
         return toUserDto(user);
     }
 
     @Override
     @Transactional
     public UserDto createUser(UserDto userDto) {
-        log.info("Создание пользователя: {}", userDto);
+        log.debug("Создание пользователя: {}", userDto);
         User user = toUser(userDto);
         User savedUser = userRepository.save(user);
-        log.info("Пользователь создан: {}", savedUser);
+        log.debug("Пользователь создан: {}", savedUser);
         return toUserDto(savedUser);
     }
 
     @Override
     @Transactional
     public UserDto updateUserById(UserDto userDto, Long userId) {
-        log.info("Обновление пользователя с id: {}", userId);
+        log.debug("Обновление пользователя с id: {}", userId);
         User updatingUser = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("Не найден пользователь с id: " + userId));
 
-        if (Objects.nonNull(userDto.getName())) updatingUser.setName(userDto.getName());
+        // В JSON вещей из данных пользователя попадает только имя автора отзыва, поэтому кэш вещей
+        // сбрасывается лишь при смене имени
+        if (Objects.nonNull(userDto.getName()) && !userDto.getName().equals(updatingUser.getName())) {
+            updatingUser.setName(userDto.getName());
+            eventPublisher.publishEvent(ItemChangedEvent.allItems());
+        }
         if (Objects.nonNull(userDto.getEmail())) updatingUser.setEmail(userDto.getEmail());
 
-        userRepository.save(updatingUser);
-        log.info("Пользователь обновлен: {}", updatingUser);
+        log.debug("Пользователь обновлен: {}", updatingUser);
         return toUserDto(updatingUser);
     }
 
+    @Override
+    @Transactional
+    public long updateUserIfVersionMatches(UserDto userDto, Long userId, long version) {
+        log.debug("Условное обновление пользователя с id: {} версии {}", userId, version);
+        Map<String, Object> changes = new HashMap<>();
+        if (Objects.nonNull(userDto.getName())) changes.put("name", userDto.getName());
+        if (Objects.nonNull(userDto.getEmail())) changes.put("email", userDto.getEmail());
+
+        if (userRepository.updateIfVersionMatches(userId, version, changes) == 0) {
+            if (!userRepository.existsById(userId))
+                throw new NotFoundException("Не найден пользователь с id: " + userId);
+            throw new PreconditionFailedException("Версия пользователя с id: " + userId + " изменилась");
+        }
+        if (changes.containsKey("name")) eventPublisher.publishEvent(ItemChangedEvent.allItems());
+        return version + 1;
+    }
+
     @Override
     @Transactional
     public void deleteUser(Long userId) {
-        log.info("Удаление пользователя с id: {}", userId);
+        log.debug("Удаление пользователя с id: {}", userId);
+        shardOutbox.ifAvailable(outbox -> outbox.enqueueUserBookings(userId));
         userRepository.deleteById(userId);
-        log.info("Пользователь удален: {}", userId);
+        // Каскадом удаляются вещи, бронирования и отзывы пользователя, а имя автора видно в отзывах
+        // к любым вещам, поэтому сбрасывается весь кэш вещей
+        eventPublisher.publishEvent(ItemChangedEvent.allItems());
+        log.debug("Пользователь удален: {}", userId);
     }
 }
@@ -0,0 +1,14 @@
+CREATE TABLE IF NOT EXISTS bookings (
+  id BIGINT NOT NULL,
+  item_id BIGINT NOT NULL,
+  owner_id BIGINT NOT NULL,
+  booker_id BIGINT NOT NULL,
+  start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  status VARCHAR(16) NOT NULL,
+  version BIGINT NOT NULL DEFAULT 0,
+  CONSTRAINT pk_shard_booking PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS ix_shard_bookings_owner ON bookings (owner_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS ix_shard_bookings_booker ON bookings (booker_id, start_date DESC);
@@ -0,0 +1,61 @@
+-- Перевод таблицы bookings на помесячное секционирование по end_date (PostgreSQL).
+-- Выполняется вручную в окно обслуживания, H2 секционирование не поддерживает.
+-- Перед ним должен быть выполнен entity-uuid.sql: столбец uuid переносится вместе со строками.
+-- Столбцы новой таблицы повторяют bookings из schema.sql, при изменении схемы скрипт правится вместе с ней.
+-- Запросы состояния PAST читают только секции, подходящие под условие end_date < now.
+-- Проверка start_date > CURRENT_TIMESTAMP не переносится: с ней нельзя перелить уже начавшиеся бронирования.
+-- Секции на следующие месяцы создаются вызовом create_bookings_partition (например, ежемесячно из pg_cron),
+-- строки вне существующих секций попадают в bookings_default.
+
+BEGIN;
+
+ALTER TABLE bookings RENAME TO bookings_unpartitioned;
+
+CREATE TABLE bookings (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  uuid UUID NOT NULL,
+  start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL CHECK (end_date > start_date),
+  item_id BIGINT NOT NULL,
+  booker_id BIGINT NOT NULL,
+  status TEXT NOT NULL CHECK (status IN ('WAITING', 'APPROVED', 'REJECTED', 'CANCELED')),
+  version BIGINT NOT NULL DEFAULT 0,
+  CONSTRAINT pk_booking_part PRIMARY KEY (id, end_date),
+  CONSTRAINT uq_booking_part_uuid UNIQUE (uuid, end_date),
+  FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE,
+  FOREIGN KEY (booker_id) REFERENCES users (id) ON DELETE CASCADE,
+  CONSTRAINT uq_item_book_per_part UNIQUE (item_id, start_date, end_date)
+) PARTITION BY RANGE (end_date);
+
+CREATE TABLE bookings_default PARTITION OF bookings DEFAULT;
+
+CREATE INDEX ix_bookings_booker_end ON bookings (booker_id, end_date);
+CREATE INDEX ix_bookings_item_end ON bookings (item_id, end_date);
+
+-- Создаёт секцию на месяц, содержащий переданную дату
+CREATE OR REPLACE FUNCTION create_bookings_partition(month_start DATE) RETURNS VOID AS $$
+DECLARE
+  from_date DATE := date_trunc('month', month_start)::DATE;
+  to_date DATE := (date_trunc('month', month_start) + INTERVAL '1 month')::DATE;
+  partition_name TEXT := 'bookings_' || to_char(from_date, 'YYYY_MM');
+BEGIN
+  EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF bookings FOR VALUES FROM (%L) TO (%L)',
+                 partition_name, from_date, to_date);
+END;
+$$ LANGUAGE plpgsql;
+
+-- Секции за весь период существующих данных и на год вперёд
+SELECT create_bookings_partition(month::DATE)
+FROM generate_series(
+  date_trunc('month', (SELECT coalesce(min(end_date), now()) FROM bookings_unpartitioned)),
+  date_trunc('month', now() + INTERVAL '12 months'),
+  INTERVAL '1 month') AS month;
+
+INSERT INTO bookings (id, uuid, start_date, end_date, item_id, booker_id, status, version)
+SELECT id, uuid, start_date, end_date, item_id, booker_id, status, version FROM bookings_unpartitioned;
+
+SELECT setval(pg_get_serial_sequence('bookings', 'id'), (SELECT coalesce(max(id), 0) + 1 FROM bookings), false);
+
+DROP TABLE bookings_unpartitioned;
+
+COMMIT;
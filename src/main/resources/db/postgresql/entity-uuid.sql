@@ -0,0 +1,29 @@
+-- Добавление естественного ключа uuid в существующую базу PostgreSQL (13+, gen_random_uuid встроена).
+-- Выполняется вручную до запуска версии, в которой сущности сравниваются по uuid:
+-- ddl-auto: update не добавит столбец NOT NULL в непустую таблицу.
+
+BEGIN;
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS uuid UUID NOT NULL DEFAULT gen_random_uuid();
+ALTER TABLE requests ADD COLUMN IF NOT EXISTS uuid UUID NOT NULL DEFAULT gen_random_uuid();
+ALTER TABLE items ADD COLUMN IF NOT EXISTS uuid UUID NOT NULL DEFAULT gen_random_uuid();
+ALTER TABLE comments ADD COLUMN IF NOT EXISTS uuid UUID NOT NULL DEFAULT gen_random_uuid();
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS uuid UUID NOT NULL DEFAULT gen_random_uuid();
+ALTER TABLE bookings_archive ADD COLUMN IF NOT EXISTS uuid UUID NOT NULL DEFAULT gen_random_uuid();
+
+-- Ключ назначает приложение, значение по умолчанию нужно было только для существующих строк
+ALTER TABLE users ALTER COLUMN uuid DROP DEFAULT;
+ALTER TABLE requests ALTER COLUMN uuid DROP DEFAULT;
+ALTER TABLE items ALTER COLUMN uuid DROP DEFAULT;
+ALTER TABLE comments ALTER COLUMN uuid DROP DEFAULT;
+ALTER TABLE bookings ALTER COLUMN uuid DROP DEFAULT;
+ALTER TABLE bookings_archive ALTER COLUMN uuid DROP DEFAULT;
+
+ALTER TABLE users ADD CONSTRAINT uq_user_uuid UNIQUE (uuid);
+ALTER TABLE requests ADD CONSTRAINT uq_request_uuid UNIQUE (uuid);
+ALTER TABLE items ADD CONSTRAINT uq_item_uuid UNIQUE (uuid);
+ALTER TABLE comments ADD CONSTRAINT uq_comment_uuid UNIQUE (uuid);
+ALTER TABLE bookings ADD CONSTRAINT uq_booking_uuid UNIQUE (uuid);
+ALTER TABLE bookings_archive ADD CONSTRAINT uq_booking_archive_uuid UNIQUE (uuid);
+
+COMMIT;
@@ -3,55 +3,93 @@ DROP TABLE IF EXISTS items CASCADE;
 DROP TABLE IF EXISTS requests CASCADE;
 DROP TABLE IF EXISTS bookings CASCADE;
 DROP TABLE IF EXISTS comments CASCADE;
+DROP TABLE IF EXISTS bookings_archive CASCADE;
+DROP TABLE IF EXISTS booking_shard_outbox CASCADE;
 
 CREATE TABLE IF NOT EXISTS users (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  uuid UUID NOT NULL,
   name VARCHAR(255) NOT NULL,
   email VARCHAR(512) NOT NULL UNIQUE,
+  version BIGINT NOT NULL DEFAULT 0,
   CONSTRAINT pk_user PRIMARY KEY (id),
+  CONSTRAINT uq_user_uuid UNIQUE (uuid),
   CONSTRAINT uq_user_email UNIQUE (email)
 );
 
 CREATE TABLE IF NOT EXISTS requests (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  uuid UUID NOT NULL,
   description TEXT NOT NULL,
   requestor_id BIGINT NOT NULL,
   CONSTRAINT pk_request PRIMARY KEY (id),
+  CONSTRAINT uq_request_uuid UNIQUE (uuid),
   FOREIGN KEY (requestor_id) REFERENCES users (id) ON DELETE CASCADE
 );
 
 CREATE TABLE IF NOT EXISTS items (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  uuid UUID NOT NULL,
   name VARCHAR(255) NOT NULL,
   description TEXT NOT NULL,
   is_available BOOLEAN NOT NULL DEFAULT FALSE,
   owner_id     BIGINT NOT NULL,
   request_id   BIGINT,
+  version BIGINT NOT NULL DEFAULT 0,
   CONSTRAINT pk_item PRIMARY KEY (id),
+  CONSTRAINT uq_item_uuid UNIQUE (uuid),
   FOREIGN KEY (owner_id) REFERENCES users (id) ON DELETE CASCADE,
   FOREIGN KEY (request_id) REFERENCES requests (id) ON DELETE CASCADE
 );
 
 CREATE TABLE IF NOT EXISTS comments (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  uuid UUID NOT NULL,
   text TEXT   NOT NULL,
   item_id BIGINT NOT NULL,
   author_id BIGINT NOT NULL,
   created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
   CONSTRAINT pk_comment PRIMARY KEY (id),
+  CONSTRAINT uq_comment_uuid UNIQUE (uuid),
   FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE,
   FOREIGN KEY (author_id) REFERENCES users (id) ON DELETE CASCADE
 );
 
 CREATE TABLE IF NOT EXISTS bookings (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  uuid UUID NOT NULL,
   start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL CHECK (start_date > CURRENT_TIMESTAMP),
   end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL CHECK (end_date > start_date),
   item_id BIGINT NOT NULL,
   booker_id BIGINT NOT NULL,
   status TEXT NOT NULL CHECK (status IN ('WAITING', 'APPROVED', 'REJECTED', 'CANCELED')),
+  version BIGINT NOT NULL DEFAULT 0,
   CONSTRAINT pk_booking PRIMARY KEY (id),
+  CONSTRAINT uq_booking_uuid UNIQUE (uuid),
   FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE,
   FOREIGN KEY (booker_id) REFERENCES users (id) ON DELETE CASCADE,
   CONSTRAINT uq_item_book_per UNIQUE (item_id, start_date, end_date)
 );
+
+CREATE TABLE IF NOT EXISTS bookings_archive (
+  id BIGINT NOT NULL,
+  uuid UUID NOT NULL,
+  start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  item_id BIGINT NOT NULL,
+  booker_id BIGINT NOT NULL,
+  status TEXT NOT NULL,
+  CONSTRAINT pk_booking_archive PRIMARY KEY (id),
+  CONSTRAINT uq_booking_archive_uuid UNIQUE (uuid),
+  FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE,
+  FOREIGN KEY (booker_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS ix_bookings_archive_booker ON bookings_archive (booker_id, end_date);
+CREATE INDEX IF NOT EXISTS ix_bookings_archive_item ON bookings_archive (item_id, end_date);
+
+CREATE TABLE IF NOT EXISTS booking_shard_outbox (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  booking_id BIGINT NOT NULL,
+  CONSTRAINT pk_booking_shard_outbox PRIMARY KEY (id)
+);
@@ -0,0 +1,164 @@
+package ru.practicum.shareit.allocation;
+
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Бюджеты выделения памяти на один вызов горячих методов сервисов. Бюджет записан с запасом около
+ * полутора раз от замера на наборе из setUp: превышение означает регрессию, которую надо либо
+ * исправить, либо осознанно закрепить новым бюджетом. Тесты входят в обычный прогон и роняют сборку.
+ * Байты зависят от JDK, GC и версии Hibernate: на другой JDK бюджеты можно умножить,
+ * например mvn test -Dallocation.tolerance=1.3. Только эти тесты: mvn test -P allocation.
+ */
+@Tag("allocation")
+@SpringBootTest(classes = ShareItApp.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class AllocationBudgetTests {
+    private static final int ITEMS = 10;
+    private static final int WARMUP_CALLS = 100;
+    private static final int MEASURED_CALLS = 100;
+
+    // Замеры на JDK 21: getItem ~97 КБ, getUserItems ~845 КБ, getItemsByText ~900 КБ, getUserBookings ~150 КБ
+    private static final long GET_ITEM_BUDGET = 150_000;
+    private static final long GET_USER_ITEMS_BUDGET = 1_300_000;
+    private static final long GET_ITEMS_BY_TEXT_BUDGET = 1_400_000;
+    private static final long GET_USER_BOOKINGS_BUDGET = 230_000;
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("allocation.tolerance", "1.0"));
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private User owner;
+    private User booker;
+    private Item firstItem;
+    private String tag;
+
+    @BeforeAll
+    void setUp() {
+        // Уникальный тег отделяет набор от данных, оставленных другими тестами в общей базе
+        tag = "alloc" + System.nanoTime();
+        owner = userRepository.save(user("owner"));
+        booker = userRepository.save(user("booker"));
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = new Item();
+            item.setName(tag + " " + i);
+            item.setDescription("Вещь для замера выделений " + i);
+            item.setAvailable(true);
+            item.setOwner(owner);
+            item = itemRepository.save(item);
+            if (firstItem == null) firstItem = item;
+
+            bookingRepository.save(booking(item, now.minusDays(10 + i), now.minusDays(5 + i)));
+            bookingRepository.save(booking(item, now.plusDays(5 + i), now.plusDays(10 + i)));
+
+            Comment comment = new Comment();
+            comment.setText("Отличная вещь " + i);
+            comment.setItem(item);
+            comment.setAuthor(booker);
+            comment.setCreated(now.minusDays(1));
+            commentRepository.save(comment);
+        }
+    }
+
+    @Test
+    void getItemShouldStayWithinBudget() {
+        assertWithinBudget("getItem", GET_ITEM_BUDGET,
+                () -> itemService.getItem(owner.getId(), firstItem.getId()));
+    }
+
+    @Test
+    void getUserItemsShouldStayWithinBudget() {
+        assertWithinBudget("getUserItems", GET_USER_ITEMS_BUDGET,
+                () -> itemService.getUserItems(owner.getId()));
+    }
+
+    @Test
+    void getItemsByTextShouldStayWithinBudget() {
+        assertWithinBudget("getItemsByText", GET_ITEMS_BY_TEXT_BUDGET,
+                () -> itemService.getItemsByText(tag));
+    }
+
+    @Test
+    void getUserBookingsShouldStayWithinBudget() {
+        assertWithinBudget("getUserBookings", GET_USER_BOOKINGS_BUDGET,
+                () -> bookingService.getUserBookings(booker.getId(), "ALL", 0, 10));
+    }
+
+    private void assertWithinBudget(String name, long budget, Runnable call) {
+        // Прогрев: JIT, кэши планов запросов Hibernate и ленивые инициализации не должны попасть в замер
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            call.run();
+        }
+
+        long threadId = Thread.currentThread().threadId();
+        long before = THREADS.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            call.run();
+        }
+        long perCall = (THREADS.getThreadAllocatedBytes(threadId) - before) / MEASURED_CALLS;
+        long allowed = (long) (budget * TOLERANCE);
+
+        assertThat(perCall)
+                .as("%s выделяет %d байт на вызов при бюджете %d", name, perCall, allowed)
+                .isLessThanOrEqualTo(allowed);
+    }
+
+    private User user(String role) {
+        User user = new User();
+        user.setName(tag + "-" + role);
+        user.setEmail(tag + "-" + role + "@example.com");
+        return user;
+    }
+
+    private Booking booking(Item item, LocalDateTime start, LocalDateTime end) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStartDate(start);
+        booking.setEndDate(end);
+        booking.setStatus(BookingStatus.APPROVED);
+        return booking;
+    }
+}
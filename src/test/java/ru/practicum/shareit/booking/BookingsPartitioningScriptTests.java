@@ -0,0 +1,40 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Скрипт секционирования пересоздаёт bookings вручную, поэтому его столбцы сверяются со schema.sql.
+ */
+class BookingsPartitioningScriptTests {
+    private static final Pattern BOOKINGS_TABLE = Pattern.compile(
+            "CREATE TABLE (?:IF NOT EXISTS )?bookings \\((.*?)\\n\\)", Pattern.DOTALL);
+    private static final Pattern COLUMN = Pattern.compile("^\\s+([a-z_]+) [A-Z]", Pattern.MULTILINE);
+
+    @Test
+    void partitionedBookingsShouldHaveSameColumnsAsSchema() throws IOException {
+        assertThat(columns("db/postgresql/bookings-partitioning.sql")).isEqualTo(columns("schema.sql"));
+    }
+
+    private static Set<String> columns(String script) throws IOException {
+        String sql = new ClassPathResource(script).getContentAsString(StandardCharsets.UTF_8);
+        Matcher table = BOOKINGS_TABLE.matcher(sql);
+        assertThat(table.find()).as("bookings в %s", script).isTrue();
+
+        Set<String> columns = new LinkedHashSet<>();
+        Matcher column = COLUMN.matcher(table.group(1));
+        while (column.find()) {
+            columns.add(column.group(1));
+        }
+        return columns;
+    }
+}
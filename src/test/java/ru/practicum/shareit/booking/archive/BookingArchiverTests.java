@@ -0,0 +1,109 @@
+package ru.practicum.shareit.booking.archive;
+
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Transactional
+@SpringBootTest(classes = ShareItApp.class, properties = {
+        "shareit.booking.archive.enabled=true",
+        "shareit.booking.archive.horizon=30d",
+        "shareit.booking.archive.batch-size=2"
+})
+public class BookingArchiverTests {
+    @Autowired
+    private BookingArchiver bookingArchiver;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        User owner = user("archive-owner");
+        booker = user("archive-booker");
+
+        Item item = new Item();
+        item.setName("Дрель");
+        item.setDescription("Электрическая дрель");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        itemRepository.save(item);
+
+        // Пять старых бронирований за горизонтом архива и одно недавно завершившееся
+        for (int i = 1; i <= 5; i++) {
+            booking(item, now.minusDays(100 + i), now.minusDays(99 + i));
+        }
+        booking(item, now.minusDays(3), now.minusDays(2));
+    }
+
+    @Test
+    void shouldMoveOldBookingsToArchiveInBatches() {
+        int moved = bookingArchiver.archive(now);
+
+        assertThat(moved).isEqualTo(5);
+        assertThat(bookingRepository.count()).isEqualTo(1);
+        assertThat(archivedBookingRepository.count()).isEqualTo(5);
+    }
+
+    @Test
+    void shouldIncludeArchivedBookingsOnlyForPastState() {
+        bookingArchiver.archive(now);
+
+        Collection<BookingDtoResponse> past = bookingService.getUserBookings(booker.getId(), "PAST", 0, 10);
+        Collection<BookingDtoResponse> all = bookingService.getUserBookings(booker.getId(), "ALL", 0, 10);
+
+        assertThat(past).hasSize(6);
+        assertThat(past).extracting(BookingDtoResponse::getStart).isSortedAccordingTo((a, b) -> b.compareTo(a));
+        assertThat(all).hasSize(1);
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@example.com");
+        return userRepository.save(user);
+    }
+
+    private void booking(Item item, LocalDateTime start, LocalDateTime end) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStartDate(start);
+        booking.setEndDate(end);
+        booking.setStatus(BookingStatus.APPROVED);
+        bookingRepository.save(booking);
+    }
+}
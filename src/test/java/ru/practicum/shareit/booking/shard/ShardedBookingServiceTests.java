@@ -0,0 +1,219 @@
+package ru.practicum.shareit.booking.shard;
+
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.archive.BookingArchiver;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = ShareItApp.class, properties = {
+        "shareit.booking.sharding.enabled=true",
+        "shareit.booking.sharding.relay-delay=1h",
+        "shareit.booking.sharding.shards[0].url=jdbc:h2:mem:sharded_service_0;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "shareit.booking.sharding.shards[0].driver-class-name=org.h2.Driver",
+        "shareit.booking.sharding.shards[1].url=jdbc:h2:mem:sharded_service_1;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "shareit.booking.sharding.shards[1].driver-class-name=org.h2.Driver",
+        "shareit.booking.archive.enabled=true",
+        "shareit.booking.archive.horizon=30d"
+})
+public class ShardedBookingServiceTests {
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingShardOutbox shardOutbox;
+
+    @Autowired
+    private BookingShardRelay shardRelay;
+
+    @Autowired
+    private ShardedBookingStore shardedBookingStore;
+
+    @Autowired
+    private BookingArchiver bookingArchiver;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookingShardReconciler shardReconciler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = user("shard-owner");
+        booker = user("shard-booker");
+
+        item = new Item();
+        item.setName("Палатка");
+        item.setDescription("Четырёхместная палатка");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        itemRepository.save(item);
+    }
+
+    @Test
+    void shouldRelayCommittedChangesToShards() {
+        BookingDtoResponse booking = bookingService.createBooking(booker.getId(), bookingDto(now.plusDays(1)));
+
+        assertThat(bookingService.getUserBookings(booker.getId(), "ALL", 0, 10))
+                .extracting(BookingDtoResponse::getId)
+                .containsExactly(booking.getId());
+
+        bookingService.updateBookingStatus(owner.getId(), booking.getId(), false);
+
+        assertThat(bookingService.getOwnerBookings(owner.getId(), "REJECTED", 0, 10))
+                .extracting(BookingDtoResponse::getId)
+                .containsExactly(booking.getId());
+    }
+
+    @Test
+    void shouldNotRelayRolledBackBooking() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            bookingService.createBooking(booker.getId(), bookingDto(now.plusDays(1)));
+            status.setRollbackOnly();
+        });
+        shardRelay.relay();
+
+        assertThat(bookingService.getUserBookings(booker.getId(), "ALL", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void shouldPageArchivedBookingsLikeUnshardedServiceAndDropThemFromShards() {
+        // Пять бронирований за горизонтом архива и одно недавно завершившееся
+        List<Long> ids = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            ids.add(pastBooking(now.minusDays(100 + i), now.minusDays(99 + i)));
+        }
+        ids.add(pastBooking(now.minusDays(3), now.minusDays(2)));
+
+        assertThat(bookingArchiver.archive(now)).isEqualTo(5);
+        shardRelay.relay();
+
+        assertThat(shardedBookingStore.findByBooker(booker.getId(), BookingState.PAST, now, 0, 10))
+                .extracting(BookingShardRow::id)
+                .containsExactly(ids.get(5));
+        // from задаёт смещение в строках: страница со второй строки содержит следующие три бронирования
+        assertThat(bookingService.getUserBookings(booker.getId(), "PAST", 1, 3))
+                .extracting(BookingDtoResponse::getId)
+                .containsExactly(ids.get(0), ids.get(1), ids.get(2));
+        assertThat(bookingService.getOwnerBookings(owner.getId(), "PAST", 0, 10)).hasSize(6);
+    }
+
+    @Test
+    void shouldDropBookingsDeletedByCascadeFromShards() {
+        BookingDtoResponse booking = bookingService.createBooking(booker.getId(), bookingDto(now.plusDays(1)));
+        assertThat(shardedBookingStore.findByOwner(owner.getId(), BookingState.ALL, now, 0, 10)).hasSize(1);
+
+        // В тестовой схеме нет ON DELETE CASCADE из schema.sql, поэтому каскад удаляется вручную
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            shardOutbox.enqueueUserBookings(booker.getId());
+            jdbcTemplate.update("delete from bookings where booker_id = ?", booker.getId());
+        });
+
+        assertThat(shardedBookingStore.findByOwner(owner.getId(), BookingState.ALL, now, 0, 10))
+                .extracting(BookingShardRow::id)
+                .doesNotContain(booking.getId());
+
+        BookingDtoResponse another = bookingService.createBooking(booker.getId(), bookingDto(now.plusDays(3)));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            shardOutbox.enqueueItemBookings(item.getId());
+            jdbcTemplate.update("delete from bookings where item_id = ?", item.getId());
+        });
+
+        assertThat(shardedBookingStore.findByOwner(owner.getId(), BookingState.ALL, now, 0, 10))
+                .extracting(BookingShardRow::id)
+                .doesNotContain(another.getId());
+    }
+
+    @Test
+    void shouldCopyBookingsWrittenAroundOutboxAndRemovePhantomsOnReconcile() {
+        assertThat(shardReconciler.isReconciled()).isTrue();
+        // Бронирование записано в обход очереди, как при загрузке набора данных
+        Long written = new TransactionTemplate(transactionManager).execute(status -> {
+            Booking booking = new Booking();
+            booking.setItem(item);
+            booking.setBooker(booker);
+            booking.setStartDate(now.plusDays(2));
+            booking.setEndDate(now.plusDays(3));
+            booking.setStatus(BookingStatus.WAITING);
+            return bookingRepository.save(booking).getId();
+        });
+        BookingShardRow phantom = new BookingShardRow(Long.MAX_VALUE - 1, item.getId(), owner.getId(),
+                booker.getId(), now.plusDays(5), now.plusDays(6), BookingStatus.WAITING, 0L);
+        shardedBookingStore.upsert(phantom);
+
+        shardReconciler.reconcile();
+
+        assertThat(shardedBookingStore.findByOwner(owner.getId(), BookingState.ALL, now, 0, 10))
+                .extracting(BookingShardRow::id)
+                .containsExactly(written);
+    }
+
+    private Long pastBooking(LocalDateTime start, LocalDateTime end) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Booking booking = new Booking();
+            booking.setItem(item);
+            booking.setBooker(booker);
+            booking.setStartDate(start);
+            booking.setEndDate(end);
+            booking.setStatus(BookingStatus.APPROVED);
+            Long id = bookingRepository.save(booking).getId();
+            shardOutbox.enqueue(id);
+            return id;
+        });
+    }
+
+    private BookingDto bookingDto(LocalDateTime start) {
+        return BookingDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(start.plusDays(1))
+                .build();
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + System.nanoTime() + "@example.com");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,145 @@
+package ru.practicum.shareit.booking.shard;
+
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ShardedBookingStoreTests {
+    private static final int SHARDS = 3;
+
+    private final LocalDateTime now = LocalDateTime.of(2030, 1, 1, 12, 0);
+    private final List<DataSource> dataSources = new ArrayList<>();
+    private final List<BookingShardRow> allRows = new ArrayList<>();
+    private ShardedBookingStore store;
+
+    @BeforeEach
+    void setUp() {
+        // Несколько независимых встроенных баз H2 в роли шардов
+        for (int i = 0; i < SHARDS; i++) {
+            JdbcDataSource dataSource = new JdbcDataSource();
+            dataSource.setURL("jdbc:h2:mem:booking_shard_" + i + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL");
+            DatabasePopulatorUtils.execute(
+                    new ResourceDatabasePopulator(new ClassPathResource("booking-shard-schema.sql")), dataSource);
+            new JdbcTemplate(dataSource).update("delete from bookings");
+            dataSources.add(dataSource);
+        }
+        store = new ShardedBookingStore(dataSources);
+
+        // Автор брони 100 бронирует вещи разных владельцев, его бронирования разложены по всем шардам
+        long id = 1;
+        for (long ownerId = 1; ownerId <= 6; ownerId++) {
+            for (int k = 0; k < 4; k++) {
+                LocalDateTime start = now.plusHours(id * 7 % 23 - 11);
+                BookingShardRow row = new BookingShardRow(id, ownerId * 10, ownerId, 100L, start,
+                        start.plusHours(2), k % 2 == 0 ? BookingStatus.WAITING : BookingStatus.APPROVED, 0L);
+                store.upsert(row);
+                allRows.add(row);
+                id++;
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void shouldKeepOwnerBookingsInSingleShard() {
+        for (long ownerId = 1; ownerId <= 6; ownerId++) {
+            int expectedShard = store.shardFor(ownerId);
+            for (int i = 0; i < SHARDS; i++) {
+                Integer count = new JdbcTemplate(dataSources.get(i)).queryForObject(
+                        "select count(*) from bookings where owner_id = ?", Integer.class, ownerId);
+                assertThat(count).isEqualTo(i == expectedShard ? 4 : 0);
+            }
+        }
+    }
+
+    @Test
+    void shouldFindOwnerBookingsOrderedByStartDesc() {
+        List<BookingShardRow> result = store.findByOwner(2L, BookingState.ALL, now, 0, 10);
+
+        assertThat(result).hasSize(4);
+        assertThat(result).isSortedAccordingTo(ShardedBookingStore.NEWEST_FIRST);
+        assertThat(result).allMatch(row -> row.ownerId() == 2L);
+    }
+
+    @Test
+    void shouldMergeBookerBookingsFromAllShardsWithPagination() {
+        List<BookingShardRow> expected = allRows.stream().sorted(ShardedBookingStore.NEWEST_FIRST).toList();
+
+        List<BookingShardRow> pages = new ArrayList<>();
+        for (int from = 0; from < expected.size(); from += 5) {
+            pages.addAll(store.findByBooker(100L, BookingState.ALL, now, from, 5));
+        }
+
+        assertThat(pages).containsExactlyElementsOf(expected);
+        assertThat(store.findByBooker(100L, BookingState.ALL, now, expected.size(), 5)).isEmpty();
+    }
+
+    @Test
+    void shouldFilterBookerBookingsByState() {
+        List<BookingShardRow> expected = allRows.stream()
+                .filter(row -> row.status() == BookingStatus.WAITING)
+                .sorted(ShardedBookingStore.NEWEST_FIRST)
+                .limit(3)
+                .toList();
+
+        assertThat(store.findByBooker(100L, BookingState.WAITING, now, 0, 3)).containsExactlyElementsOf(expected);
+
+        List<BookingShardRow> future = store.findByBooker(100L, BookingState.FUTURE, now, 0, 100);
+        assertThat(future).isNotEmpty().allMatch(row -> row.startDate().isAfter(now));
+    }
+
+    @Test
+    void shouldUpdateStatusInOwnerShard() {
+        store.upsert(withStatus(allRows.get(8), BookingStatus.REJECTED, 1L));
+
+        assertThat(store.findByOwner(3L, BookingState.REJECTED, now, 0, 10))
+                .extracting(BookingShardRow::id)
+                .containsExactly(9L);
+    }
+
+    @Test
+    void shouldIgnoreOutdatedVersion() {
+        store.upsert(withStatus(allRows.get(8), BookingStatus.REJECTED, 2L));
+        // Запоздавший повторный перенос более старой версии не откатывает статус
+        store.upsert(withStatus(allRows.get(8), BookingStatus.APPROVED, 1L));
+        store.upsert(allRows.get(8));
+
+        assertThat(store.findByOwner(3L, BookingState.REJECTED, now, 0, 10))
+                .extracting(BookingShardRow::id)
+                .containsExactly(9L);
+    }
+
+    @Test
+    void shouldDeleteBookingFromItsShard() {
+        store.delete(9L);
+
+        assertThat(store.findByOwner(3L, BookingState.ALL, now, 0, 10))
+                .extracting(BookingShardRow::id)
+                .doesNotContain(9L)
+                .hasSize(3);
+    }
+
+    private static BookingShardRow withStatus(BookingShardRow row, BookingStatus status, long version) {
+        return new BookingShardRow(row.id(), row.itemId(), row.ownerId(), row.bookerId(), row.startDate(),
+                row.endDate(), status, version);
+    }
+}
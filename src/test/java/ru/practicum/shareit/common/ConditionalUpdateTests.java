@@ -0,0 +1,108 @@
+package ru.practicum.shareit.common;
+
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(classes = ShareItApp.class)
+@AutoConfigureMockMvc
+public class ConditionalUpdateTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private User owner;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setName("Ольга");
+        owner.setEmail("olga" + System.nanoTime() + "@example.com");
+        owner = userRepository.save(owner);
+
+        item = new Item();
+        item.setName("Палатка");
+        item.setDescription("Трёхместная палатка");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        item = itemRepository.save(item);
+    }
+
+    @Test
+    void shouldUpdateUserWhenIfMatchIsCurrent() throws Exception {
+        String eTag = mockMvc.perform(get("/users/{userId}", owner.getId()))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(patch("/users/{userId}", owner.getId())
+                        .header("If-Match", eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Ольга Петровна\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.name").value("Ольга Петровна"))
+                .andExpect(jsonPath("$.email").value(owner.getEmail()));
+
+        // Повтор со старой меткой означает, что клиент не видел последнего изменения
+        mockMvc.perform(patch("/users/{userId}", owner.getId())
+                        .header("If-Match", eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Ольга\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(userRepository.findById(owner.getId()).orElseThrow().getName()).isEqualTo("Ольга Петровна");
+    }
+
+    @Test
+    void shouldUpdateItemWithMinimalResponse() throws Exception {
+        String eTag = mockMvc.perform(get("/items/{itemId}", item.getId())
+                        .header("X-Sharer-User-Id", owner.getId()))
+                .andReturn().getResponse().getHeader("ETag");
+
+        String newETag = mockMvc.perform(patch("/items/{itemId}", item.getId())
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .header("If-Match", eTag)
+                        .header("Prefer", "return=minimal")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"available\":false}"))
+                .andExpect(status().isNoContent())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Новая метка совпадает с той, что вернёт следующий GET
+        mockMvc.perform(get("/items/{itemId}", item.getId())
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .header("If-None-Match", newETag))
+                .andExpect(status().isNotModified());
+        assertThat(itemRepository.findById(item.getId()).orElseThrow().getAvailable()).isFalse();
+    }
+
+    @Test
+    void shouldReturnNotFoundForMissingItemWithIfMatch() throws Exception {
+        mockMvc.perform(patch("/items/{itemId}", Long.MAX_VALUE)
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Шатёр\"}"))
+                .andExpect(status().isNotFound());
+    }
+}
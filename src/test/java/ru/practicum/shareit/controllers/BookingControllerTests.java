@@ -1,13 +1,16 @@
 package ru.practicum.shareit.controllers;
 
 import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.common.FieldSet;
 import ru.practicum.shareit.booking.dto.*;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import org.springframework.test.web.servlet.MockMvc;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -159,7 +162,7 @@ public class BookingControllerTests {
                         .build()
         );
 
-        when(bookingService.getUserBookings(userId, "ALL", 0, 10))
+        when(bookingService.getUserBookings(userId, "ALL", 0, 10, FieldSet.ALL))
                 .thenReturn(bookings);
 
         mockMvc.perform(get("/bookings")
@@ -191,7 +194,7 @@ public class BookingControllerTests {
                         .build()
         );
 
-        when(bookingService.getOwnerBookings(userId, "ALL", 0, 10))
+        when(bookingService.getOwnerBookings(userId, "ALL", 0, 10, FieldSet.ALL))
                 .thenReturn(bookings);
 
         mockMvc.perform(get("/bookings/owner")
@@ -209,6 +212,57 @@ public class BookingControllerTests {
                 .andExpect(jsonPath("$[0].end").value("2026-02-12T10:00:00"));
     }
 
+    @Test
+    void shouldGetOwnerBookingsSummary() throws Exception {
+        Long userId = 2L;
+
+        BookingDtoResponse booking = BookingDtoResponse.builder()
+                .id(200L)
+                .item(ItemDto.builder().id(20L).name("Owned Item").build())
+                .booker(UserDto.builder().id(1L).name("Booker1").build())
+                .status(BookingStatus.WAITING)
+                .build();
+
+        List<BookingStateSummaryDto> summary = List.of(
+                new BookingStateSummaryDto(BookingState.ALL, 1, List.of(booking)),
+                new BookingStateSummaryDto(BookingState.CURRENT, 0, List.of()),
+                new BookingStateSummaryDto(BookingState.WAITING, 1, List.of(booking))
+        );
+
+        when(bookingService.getOwnerBookingsSummary(userId, 5)).thenReturn(summary);
+
+        mockMvc.perform(get("/bookings/owner/summary")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].state").value("ALL"))
+                .andExpect(jsonPath("$[0].count").value(1))
+                .andExpect(jsonPath("$[0].bookings[0].id").value(200L))
+                .andExpect(jsonPath("$[1].bookings", hasSize(0)))
+                .andExpect(jsonPath("$[2].state").value("WAITING"));
+    }
+
+    @Test
+    void shouldRejectTooLargeBookingsPage() throws Exception {
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "1000000000"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "101"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/bookings/owner/summary")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "1000000000"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(bookingService);
+    }
+
     // Тест на валидацию: ошибка при отсутствии X-Sharer-User-Id
     @Test
     void shouldFailWhenHeaderMissing() throws Exception {
@@ -1,10 +1,15 @@
 package ru.practicum.shareit.controllers;
 
+import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.common.FieldSet;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.dto.ItemDtoResponse;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
 
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import org.springframework.test.web.servlet.MockMvc;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -17,9 +22,12 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @SpringBootTest(classes = ShareItApp.class)
 @AutoConfigureMockMvc
@@ -63,6 +71,53 @@ public class ItemControllerTests {
                     .andExpect(jsonPath("$.name").value("Ноутбук"));
         }
 
+    @Test
+    void shouldReplayCreateItemWithSameIdempotencyKey() throws Exception {
+        Long userId = 1L;
+        ItemDto inputDto = ItemDto.builder().name("Дрель").description("Ударная").available(true).build();
+        ItemDto outputDto = ItemDto.builder().id(7L).name("Дрель").description("Ударная").available(true).build();
+
+        when(itemService.createItem(userId, inputDto)).thenReturn(outputDto);
+
+        // Повтор с тем же ключом возвращает первый ответ без повторного создания
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/items")
+                            .header("X-Sharer-User-Id", userId)
+                            .header("Idempotency-Key", "item-key-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(inputDto)))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.id").value(7L));
+        }
+
+        verify(itemService, times(1)).createItem(userId, inputDto);
+    }
+
+    @Test
+    void shouldRejectIdempotencyKeyReusedWithOtherPayload() throws Exception {
+        Long userId = 1L;
+        ItemDto first = ItemDto.builder().name("Пила").description("Ручная").available(true).build();
+        ItemDto second = ItemDto.builder().name("Пила").description("Цепная").available(true).build();
+
+        when(itemService.createItem(userId, first)).thenReturn(first);
+
+        mockMvc.perform(post("/items")
+                        .header("X-Sharer-User-Id", userId)
+                        .header("Idempotency-Key", "item-key-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(first)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/items")
+                        .header("X-Sharer-User-Id", userId)
+                        .header("Idempotency-Key", "item-key-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(second)))
+                .andExpect(status().isConflict());
+
+        verify(itemService, never()).createItem(userId, second);
+    }
+
     @Test
     void shouldAddComment() throws Exception {
         Long userId = 1L;
@@ -111,6 +166,19 @@ public class ItemControllerTests {
                     .andExpect(jsonPath("$.available").value(false));
         }
 
+    @Test
+    void shouldReturnConflictWhenItemChangedConcurrently() throws Exception {
+        ItemDto updateDto = ItemDto.builder().name("Обновленный ноутбук").build();
+        when(itemService.updateItem(1L, 10L, updateDto))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Item.class, 10L));
+
+        mockMvc.perform(patch("/items/{itemId}", 10L)
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(updateDto)))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void shouldReturnItem() throws Exception {
         Long userId = 1L, itemId = 10L;
@@ -130,6 +198,93 @@ public class ItemControllerTests {
                 .andExpect(jsonPath("$.description").value("Мощный ноутбук"));
     }
 
+    @Test
+    void shouldReturnItemsByIdsInRequestOrder() throws Exception {
+        Long userId = 1L;
+        ItemDtoResponse responseDto = ItemDtoResponse.builder()
+                .id(10L)
+                .name("Ноутбук")
+                .build();
+
+        when(itemService.getItems(eq(userId), any())).thenReturn(Map.of(10L, responseDto));
+
+        mockMvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("ids", "404,10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(404L))
+                .andExpect(jsonPath("$[0].error").value("Не найдена вещь с id: 404"))
+                .andExpect(jsonPath("$[1].id").value(10L))
+                .andExpect(jsonPath("$[1].value.name").value("Ноутбук"));
+
+        verify(itemService, never()).getUserItems(anyLong(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void shouldReturnNotModifiedWhenItemETagMatches() throws Exception {
+        Long userId = 1L, itemId = 10L;
+
+        when(itemService.getItemETag(userId, itemId)).thenReturn(Optional.of("4"));
+
+        mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header("X-Sharer-User-Id", userId)
+                        .header("If-None-Match", "\"4\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"4\""));
+
+        verify(itemService, never()).getItem(userId, itemId);
+    }
+
+    @Test
+    void shouldServeCachedItemJsonToNonOwners() throws Exception {
+        Long ownerId = 1L, itemId = 501L;
+        ItemDtoResponse responseDto = ItemDtoResponse.builder()
+                .id(itemId)
+                .name("Палатка")
+                .ownerId(ownerId)
+                .build();
+
+        when(itemService.getItemETag(anyLong(), eq(itemId))).thenReturn(Optional.of("1"));
+        when(itemService.getItem(anyLong(), eq(itemId))).thenReturn(responseDto);
+
+        // Разные пользователи, не являющиеся владельцем, получают один и тот же готовый ответ
+        for (long viewerId = 2L; viewerId <= 3L; viewerId++) {
+            mockMvc.perform(get("/items/{itemId}", itemId)
+                            .header("X-Sharer-User-Id", viewerId))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.name").value("Палатка"))
+                    .andExpect(jsonPath("$.ownerId").doesNotExist());
+        }
+
+        verify(itemService, times(1)).getItem(anyLong(), eq(itemId));
+    }
+
+    @Test
+    void shouldNotServeCachedItemJsonWhenItemIsMissing() throws Exception {
+        Long ownerId = 1L, itemId = 502L;
+        ItemDtoResponse responseDto = ItemDtoResponse.builder()
+                .id(itemId)
+                .name("Палатка")
+                .ownerId(ownerId)
+                .build();
+
+        when(itemService.getItemETag(anyLong(), eq(itemId)))
+                .thenReturn(Optional.of("1"))
+                .thenReturn(Optional.empty());
+        when(itemService.getItem(anyLong(), eq(itemId)))
+                .thenReturn(responseDto)
+                .thenThrow(new NotFoundException("Не найдена вещь с id: " + itemId));
+
+        mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header("X-Sharer-User-Id", 2L))
+                .andExpect(status().isOk());
+        // Вещь удалена, а кэш ещё не сброшен: ответ строится заново и не берётся из кэша
+        mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header("X-Sharer-User-Id", 2L))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void shouldReturnUserItems() throws Exception {
         Long userId = 1L;
@@ -146,7 +301,7 @@ public class ItemControllerTests {
                         .build()
         );
 
-        when(itemService.getUserItems(userId)).thenReturn(items);
+        when(itemService.getUserItems(userId, 0, 10, FieldSet.ALL)).thenReturn(items);
 
         mockMvc.perform(get("/items")
                         .header("X-Sharer-User-Id", userId))
@@ -158,6 +313,38 @@ public class ItemControllerTests {
                 .andExpect(jsonPath("$[1].name").value("Телефон"));
     }
 
+    @Test
+    void shouldRejectTooLargeItemsPage() throws Exception {
+        mockMvc.perform(get("/items/search")
+                        .param("text", "ноутбук")
+                        .param("size", "101"))
+                .andExpect(status().isBadRequest());
+
+        verify(itemService, never()).getItemsByText(anyString(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void shouldReturnOnlyRequestedFields() throws Exception {
+        Long userId = 1L;
+        List<ItemDtoResponse> items = List.of(ItemDtoResponse.builder()
+                .id(1L)
+                .name("Ноутбук")
+                .description("Описание")
+                .comments(List.of())
+                .build());
+
+        when(itemService.getUserItems(userId, 0, 10, FieldSet.parse("id,name"))).thenReturn(items);
+
+        mockMvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("fields", "id,name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[0].name").value("Ноутбук"))
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andExpect(jsonPath("$[0].comments").doesNotExist());
+    }
+
     @Test
     void shouldReturnItemsByText() throws Exception {
         String text = "ноутбук";
@@ -169,7 +356,7 @@ public class ItemControllerTests {
                         .build()
         );
 
-        when(itemService.getItemsByText(text)).thenReturn(items);
+        when(itemService.getItemsByText(text, 0, 10, FieldSet.ALL)).thenReturn(items);
 
         mockMvc.perform(get("/items/search")
                         .param("text", text))
@@ -19,6 +19,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
 
 @SpringBootTest(classes = ShareItApp.class)
 @AutoConfigureMockMvc
@@ -48,6 +52,33 @@ public class UserControllerTests {
                 .andExpect(jsonPath("$[1].name").value("Алексей"));
     }
 
+    @Test
+    void shouldGetUsersByIdsAndReportMissingPerEntry() throws Exception {
+        when(userService.getUsers(any())).thenReturn(Map.of(1L, new UserDto(1L, "Иван", "john@example.com")));
+
+        mockMvc.perform(get("/users").param("ids", "1", "999", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[0].value.name").value("Иван"))
+                .andExpect(jsonPath("$[0].error").doesNotExist())
+                .andExpect(jsonPath("$[1].id").value(999L))
+                .andExpect(jsonPath("$[1].value").doesNotExist())
+                .andExpect(jsonPath("$[1].error").value("Не найден пользователь с id: 999"));
+
+        verify(userService).getUsers(Set.of(1L, 999L));
+    }
+
+    @Test
+    void shouldRejectTooManyIds() throws Exception {
+        String[] ids = LongStream.rangeClosed(1, 101).mapToObj(String::valueOf).toArray(String[]::new);
+
+        mockMvc.perform(get("/users").param("ids", ids))
+                .andExpect(status().isBadRequest());
+
+        verify(userService, never()).getUsers(any());
+    }
+
     @Test
     void shouldGetUserById() throws Exception {
         Long userId = 1L;
@@ -63,6 +94,26 @@ public class UserControllerTests {
                 .andExpect(jsonPath("$.email").value("john@example.com"));
     }
 
+    @Test
+    void shouldReturnUserETagAndNotModified() throws Exception {
+        Long userId = 1L;
+        UserDto user = new UserDto(userId, "John", "john@example.com");
+
+        when(userService.getUserETag(userId)).thenReturn(Optional.of("2"));
+        when(userService.getUserById(userId)).thenReturn(user);
+
+        mockMvc.perform(get("/users/{userId}", userId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2\""));
+
+        // Клиент с актуальной меткой получает 304 без чтения пользователя
+        mockMvc.perform(get("/users/{userId}", userId)
+                        .header("If-None-Match", "\"2\""))
+                .andExpect(status().isNotModified());
+
+        verify(userService, times(1)).getUserById(userId);
+    }
+
     @Test
     void shouldCreateUser() throws Exception {
         UserDto inputUser = new UserDto(null, "Артур", "artur@example.com");
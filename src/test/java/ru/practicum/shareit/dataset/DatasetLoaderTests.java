@@ -0,0 +1,120 @@
+package ru.practicum.shareit.dataset;
+
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(classes = ShareItApp.class)
+public class DatasetLoaderTests {
+    @Autowired
+    private DatasetLoader datasetLoader;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void shouldLoadSkewedDatasetAfterExistingRows() {
+        DatasetProperties properties = properties();
+        long users = maxId("users");
+        long items = maxId("items");
+        long bookings = maxId("bookings");
+
+        long rows = datasetLoader.load(properties);
+
+        assertThat(rows).isEqualTo(200 + 20 + 1_000 + 20_000 + 2_000);
+        assertThat(countAfter("users", users)).isEqualTo(200);
+        assertThat(countAfter("items", items)).isEqualTo(1_000);
+        assertThat(countAfter("bookings", bookings)).isEqualTo(20_000);
+
+        // Степенное распределение: у самого крупного владельца и самой популярной вещи больше 10% строк
+        Long topOwnerItems = jdbcTemplate.queryForObject("select max(c) from (select count(*) c from items "
+                + "where id > ? group by owner_id) t", Long.class, items);
+        Long hotItemBookings = jdbcTemplate.queryForObject("select max(c) from (select count(*) c from bookings "
+                + "where id > ? group by item_id) t", Long.class, bookings);
+        assertThat(topOwnerItems).isGreaterThan(100);
+        assertThat(hotItemBookings).isGreaterThan(2_000);
+
+        Long ownBookings = jdbcTemplate.queryForObject("select count(*) from bookings b join items i "
+                + "on i.id = b.item_id where b.id > ? and b.booker_id = i.owner_id", Long.class, bookings);
+        assertThat(ownBookings).isZero();
+
+        // Счётчик identity сдвинут за загруженные строки, обычное создание не конфликтует с ними
+        User user = new User();
+        user.setName("after-dataset");
+        user.setEmail("after-dataset" + System.nanoTime() + "@example.com");
+        assertThat(userRepository.save(user).getId()).isGreaterThan(users + 200);
+    }
+
+    @Test
+    void shouldRestartIdentityAfterFailedLoad() {
+        DatasetProperties properties = properties();
+        // Без вещей генерация падает на бронированиях, когда пользователи уже зафиксированы
+        properties.setItems(0);
+        long users = maxId("users");
+
+        assertThatThrownBy(() -> datasetLoader.load(properties)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(countAfter("users", users)).isEqualTo(200);
+        User user = new User();
+        user.setName("after-failed-dataset");
+        user.setEmail("after-failed-dataset" + System.nanoTime() + "@example.com");
+        assertThat(userRepository.save(user).getId()).isGreaterThan(users + 200);
+    }
+
+    @Test
+    void shouldGenerateSameRowsForSameSeed() throws Exception {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+        assertThat(generate(now)).isEqualTo(generate(now));
+    }
+
+    private List<String> generate(LocalDateTime now) throws Exception {
+        List<String> rows = new ArrayList<>();
+        new DatasetGenerator(properties(), now).generate((table, columns) -> new TableWriter() {
+            @Override
+            public void row(Object... values) {
+                rows.add(table + Arrays.toString(values));
+            }
+
+            @Override
+            public void close() {
+            }
+        }, DatasetGenerator.IdOffsets.EMPTY);
+        return rows;
+    }
+
+    private long maxId(String table) {
+        return jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+    }
+
+    private long countAfter(String table, long id) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table + " where id > ?", Long.class, id);
+    }
+
+    private static DatasetProperties properties() {
+        DatasetProperties properties = new DatasetProperties();
+        properties.setUsers(200);
+        properties.setRequests(20);
+        properties.setItems(1_000);
+        properties.setBookings(20_000);
+        properties.setComments(2_000);
+        properties.setBatchSize(1_000);
+        return properties;
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.datasource;
+
+import ru.practicum.shareit.item.fetch.ParallelFetcher;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReplicaRoutingTests {
+    private ReplicaLagMonitor lagMonitor;
+    private PrimaryStickiness stickiness;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTx;
+    private TransactionTemplate writeTx;
+
+    @BeforeEach
+    void setUp() {
+        // Две независимые базы H2 в роли основной базы и реплики
+        DataSource primary = h2("primary");
+        DataSource replica = h2("replica");
+
+        lagMonitor = new ReplicaLagMonitor(replica, "select lag from replica_lag", Duration.ofSeconds(5));
+        lagMonitor.check();
+        stickiness = new PrimaryStickiness(Duration.ofMinutes(1), 100);
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(replica, primary, lagMonitor, stickiness));
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        writeTx = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        lagMonitor.close();
+        PrimaryStickiness.clearCurrentUser();
+    }
+
+    @Test
+    void shouldRouteReadOnlyTransactionsToReplica() {
+        assertThat(nodeFor(readOnlyTx)).isEqualTo("replica");
+    }
+
+    @Test
+    void shouldRouteWriteTransactionsToPrimary() {
+        assertThat(nodeFor(writeTx)).isEqualTo("primary");
+    }
+
+    @Test
+    void shouldRouteReadsToPrimaryAfterOwnWrite() {
+        stickiness.markWrite(1L);
+
+        PrimaryStickiness.setCurrentUser(1L);
+        assertThat(nodeFor(readOnlyTx)).isEqualTo("primary");
+
+        PrimaryStickiness.setCurrentUser(2L);
+        assertThat(nodeFor(readOnlyTx)).isEqualTo("replica");
+    }
+
+    @Test
+    void shouldRoutePoolReadsToPrimaryAfterOwnWrite() {
+        stickiness.markWrite(1L);
+        PrimaryStickiness.setCurrentUser(1L);
+
+        try (ParallelFetcher fetcher = ParallelFetcher.parallel(1, PrimaryStickiness::withCurrentUser)) {
+            String nodes = fetcher.fetch(() -> nodeFor(readOnlyTx), () -> nodeFor(readOnlyTx),
+                    (first, second) -> first + "/" + second);
+
+            assertThat(nodes).isEqualTo("primary/primary");
+        }
+    }
+
+    @Test
+    void shouldRouteReadsToPrimaryWhenReplicaLags() {
+        readOnlyTx.execute(status -> null);
+        new JdbcTemplate(h2("replica")).update("update replica_lag set lag = 30");
+        lagMonitor.check();
+
+        assertThat(lagMonitor.isReplicaHealthy()).isFalse();
+        assertThat(nodeFor(readOnlyTx)).isEqualTo("primary");
+    }
+
+    private String nodeFor(TransactionTemplate tx) {
+        return tx.execute(status -> jdbcTemplate.queryForObject("select name from node", String.class));
+    }
+
+    private static DataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:routing_" + name + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table if not exists node (name varchar(20))");
+        jdbc.execute("create table if not exists replica_lag (lag double precision)");
+        jdbc.update("delete from node");
+        jdbc.update("delete from replica_lag");
+        jdbc.update("insert into node values (?)", name);
+        jdbc.update("insert into replica_lag values (0)");
+        return dataSource;
+    }
+}
@@ -0,0 +1,119 @@
+package ru.practicum.shareit.idempotency;
+
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.NotFoundException;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyServiceTests {
+    private final IdempotencyService service = new IdempotencyService(new IdempotencyProperties());
+
+    @Test
+    void shouldExecuteEveryTimeWithoutKey() {
+        AtomicInteger calls = new AtomicInteger();
+
+        service.execute(1L, "POST /items", null, "body", calls::incrementAndGet);
+        service.execute(1L, "POST /items", null, "body", calls::incrementAndGet);
+
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldSeparateKeysByUser() {
+        AtomicInteger calls = new AtomicInteger();
+
+        service.execute(1L, "POST /items", "k", "body", calls::incrementAndGet);
+        service.execute(2L, "POST /items", "k", "body", calls::incrementAndGet);
+
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotRememberFailedExecution() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> service.execute(1L, "POST /bookings", "k", "body", () -> {
+            calls.incrementAndGet();
+            throw new NotFoundException("Вещь не найдена");
+        })).isInstanceOf(NotFoundException.class);
+
+        // Повтор после ошибки выполняется заново
+        Integer result = service.execute(1L, "POST /bookings", "k", "body", calls::incrementAndGet);
+
+        assertThat(result).isEqualTo(2);
+    }
+
+    @Test
+    void shouldCoalesceConcurrentDuplicates() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<Integer> first = executor.submit(() -> service.execute(1L, "POST /bookings", "k", "body", () -> {
+                started.countDown();
+                await(release);
+                return calls.incrementAndGet();
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // Второй запрос ждёт первый, а не выполняет действие сам
+            Future<Integer> second = executor.submit(() ->
+                    service.execute(1L, "POST /bookings", "k", "body", calls::incrementAndGet));
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+            assertThat(calls.get()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldStopWaitingForHungFirstExecution() throws Exception {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setWaitTimeout(Duration.ofMillis(50));
+        IdempotencyService service = new IdempotencyService(properties);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            executor.submit(() -> service.execute(1L, "POST /bookings", "k", "body", () -> {
+                started.countDown();
+                await(release);
+                return 1;
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // Повтор не зависает вместе с первым запросом, а получает 409 и может прийти позже
+            assertThatThrownBy(() -> service.execute(1L, "POST /bookings", "k", "body", () -> 2))
+                    .isInstanceOf(ConflictException.class)
+                    .hasMessageContaining("ещё выполняется");
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Статистика включается через API только на время замера: с hibernate.generate_statistics каждая сессия
+// печатала бы свою статистику в лог сборки
+@SpringBootTest(classes = ShareItApp.class,
+        properties = "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN")
+public class EntityLoggingTests {
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User owner;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setName("logging-owner");
+        owner.setEmail("logging-owner" + System.nanoTime() + "@example.com");
+        owner = userRepository.save(owner);
+
+        item = new Item();
+        item.setName("Рюкзак");
+        item.setDescription("Туристический рюкзак");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        item = itemRepository.save(item);
+    }
+
+    @Test
+    void infoLoggingShouldNotAddSqlStatements() {
+        // Обновление логирует сущность с ленивым владельцем, чтение логирует найденную вещь
+        long silent = statementsWithLogLevel(Level.OFF, () -> updateAndRead("Рюкзак на 40 литров"));
+        long verbose = statementsWithLogLevel(Level.INFO, () -> updateAndRead("Рюкзак на 60 литров"));
+
+        assertThat(silent).isPositive();
+        assertThat(verbose).isEqualTo(silent);
+    }
+
+    private void updateAndRead(String description) {
+        itemService.updateItem(owner.getId(), item.getId(), ItemDto.builder().description(description).build());
+        itemService.getItem(owner.getId(), item.getId());
+    }
+
+    private long statementsWithLogLevel(Level level, Runnable action) {
+        Logger logger = (Logger) LoggerFactory.getLogger(ItemServiceImpl.class);
+        Level previous = logger.getLevel();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        logger.setLevel(level);
+        try {
+            statistics.clear();
+            statistics.setStatisticsEnabled(true);
+            action.run();
+            return statistics.getPrepareStatementCount();
+        } finally {
+            statistics.setStatisticsEnabled(false);
+            logger.setLevel(previous);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = ShareItApp.class)
+@AutoConfigureMockMvc
+public class ItemETagTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User owner;
+    private User viewer;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = user("etag-owner");
+        viewer = user("etag-viewer");
+
+        item = new Item();
+        item.setName("Байдарка");
+        item.setDescription("Двухместная байдарка");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        item = itemRepository.save(item);
+    }
+
+    @Test
+    void shouldChangeItemETagWhenBookingCreated() throws Exception {
+        String eTag = getItemETag(viewer);
+        assertThat(eTag).isNotNull();
+
+        mockMvc.perform(get("/items/{itemId}", item.getId())
+                        .header("X-Sharer-User-Id", viewer.getId())
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        bookingService.createBooking(viewer.getId(), BookingDto.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build());
+
+        // Бронирование входит в ответ по вещи, поэтому старая метка больше не подходит
+        mockMvc.perform(get("/items/{itemId}", item.getId())
+                        .header("X-Sharer-User-Id", viewer.getId())
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk());
+        assertThat(getItemETag(viewer)).isNotEqualTo(eTag);
+    }
+
+    @Test
+    void shouldChangeItemETagWhenCommentAuthorRenamed() throws Exception {
+        Comment comment = new Comment();
+        comment.setText("Не протекает");
+        comment.setItem(item);
+        comment.setAuthor(viewer);
+        comment.setCreated(LocalDateTime.now());
+        commentRepository.save(comment);
+        String eTag = getItemETag(owner);
+
+        mockMvc.perform(patch("/users/{userId}", viewer.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(UserDto.builder().name("etag-renamed").build())))
+                .andExpect(status().isOk());
+
+        // Имя автора входит в отзывы вещи, поэтому метка владельца тоже меняется
+        assertThat(getItemETag(owner)).isNotEqualTo(eTag);
+    }
+
+    @Test
+    void shouldKeepItemVersionForIfMatchWhenItemBooked() throws Exception {
+        String eTag = getItemETag(owner);
+
+        bookingService.createBooking(viewer.getId(), BookingDto.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build());
+
+        // Бронь меняет метку ответа, но не версию полей вещи: условное обновление владельца проходит
+        assertThat(getItemETag(owner)).isNotEqualTo(eTag);
+        assertThat(itemRepository.findById(item.getId()).orElseThrow().getVersion()).isEqualTo(item.getVersion());
+        mockMvc.perform(patch("/items/{itemId}", item.getId())
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .header("If-Match", eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"Двухместная байдарка с вёслами\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldGiveOwnerSeparateETag() throws Exception {
+        assertThat(getItemETag(owner)).isNotEqualTo(getItemETag(viewer));
+    }
+
+    private String getItemETag(User user) throws Exception {
+        return mockMvc.perform(get("/items/{itemId}", item.getId())
+                        .header("X-Sharer-User-Id", user.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + System.nanoTime() + "@example.com");
+        return userRepository.save(user);
+    }
+}
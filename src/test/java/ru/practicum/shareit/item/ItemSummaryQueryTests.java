@@ -0,0 +1,84 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemSummary;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Transactional
+@SpringBootTest(classes = ShareItApp.class)
+public class ItemSummaryQueryTests {
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setName("Пётр");
+        owner.setEmail("petr" + System.nanoTime() + "@example.com");
+        owner = userRepository.save(owner);
+    }
+
+    @Test
+    void shouldTruncateDescriptionInQuery() {
+        Item item = item("Генератор", "а".repeat(250), true);
+
+        List<ItemSummary> summaries = itemRepository.findSummariesByOwnerId(owner.getId(), PageRequest.of(0, 10));
+
+        assertThat(summaries).hasSize(1);
+        assertThat(summaries.getFirst().id()).isEqualTo(item.getId());
+        assertThat(summaries.getFirst().description()).hasSize(ItemRepository.SUMMARY_LENGTH);
+        assertThat(summaries.getFirst().ownerId()).isEqualTo(owner.getId());
+    }
+
+    @Test
+    void shouldSearchOnlyAvailableItems() {
+        Item available = item("Сварочный аппарат", "Инверторный", true);
+        item("Сварочная маска", "Хамелеон", false);
+
+        List<ItemSummary> summaries = itemRepository.searchAvailableSummaries("сварочн", PageRequest.of(0, 10));
+
+        assertThat(summaries).extracting(ItemSummary::id).containsExactly(available.getId());
+    }
+
+    @Test
+    void shouldReturnRequestedPageOfSearchResults() {
+        // Уникальная метка отделяет вещи теста от данных, оставленных другими тестами
+        String tag = "палатка" + System.nanoTime();
+        Item first = item("Палатка", "Двухместная " + tag, true);
+        Item second = item("Палатка", "Трёхместная " + tag, true);
+        Item third = item("Палатка", "Четырёхместная " + tag, true);
+
+        assertThat(itemRepository.searchAvailableSummaries(tag, PageRequest.of(0, 2)))
+                .extracting(ItemSummary::id).containsExactly(first.getId(), second.getId());
+        assertThat(itemRepository.searchAvailableSummaries(tag, PageRequest.of(1, 2)))
+                .extracting(ItemSummary::id).containsExactly(third.getId());
+    }
+
+    private Item item(String name, String description, boolean available) {
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription(description);
+        item.setAvailable(available);
+        item.setOwner(owner);
+        return itemRepository.save(item);
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.item.cache;
+
+import ru.practicum.shareit.item.dto.ItemDtoResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemJsonCacheTests {
+    private final ItemJsonCache cache = new ItemJsonCache(new ObjectMapper(), new ItemJsonCacheProperties());
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void shouldServeNonOwnersFromCache() {
+        cache.getItemJson(2L, 1L, loader("Дрель"));
+        byte[] json = cache.getItemJson(3L, 1L, loader("Другое"));
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(new String(json, StandardCharsets.UTF_8)).contains("Дрель").doesNotContain("ownerId");
+    }
+
+    @Test
+    void shouldAlwaysLoadForOwner() {
+        cache.getItemJson(2L, 1L, loader("Дрель"));
+        cache.getItemJson(10L, 1L, loader("Дрель"));
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldReloadAfterItemChanged() {
+        cache.getItemJson(2L, 1L, loader("Дрель"));
+        cache.onItemChanged(new ItemChangedEvent(1L));
+        byte[] json = cache.getItemJson(2L, 1L, loader("Шуруповёрт"));
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(new String(json, StandardCharsets.UTF_8)).contains("Шуруповёрт");
+    }
+
+    @Test
+    void shouldNotCacheLoadStartedBeforeChange() {
+        // Изменение пришло, пока шла загрузка: её результат мог устареть
+        cache.getItemJson(2L, 1L, () -> {
+            cache.onItemChanged(ItemChangedEvent.allItems());
+            return loader("Дрель").get();
+        });
+        cache.getItemJson(2L, 1L, loader("Дрель"));
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    private Supplier<ItemDtoResponse> loader(String name) {
+        return () -> {
+            loads.incrementAndGet();
+            return ItemDtoResponse.builder().id(1L).name(name).ownerId(10L).build();
+        };
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.item.fetch;
+
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.user.model.User;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Сравнение задержки getItem в последовательном и параллельном режимах.
+ * Запросы к базе имитируются задержкой, запуск: mvn test -P benchmark.
+ */
+@Slf4j
+@Tag("benchmark")
+class ParallelFetchBenchmarkTests {
+    private static final long QUERY_MILLIS = 20;
+    private static final int ITERATIONS = 50;
+
+    @Test
+    void parallelFetchShouldTakeMaxInsteadOfSumOfQueries() {
+        long sequential = averageMillis(ParallelFetcher.sequential());
+        long parallel;
+        try (ParallelFetcher fetcher = ParallelFetcher.parallel(2)) {
+            parallel = averageMillis(fetcher);
+        }
+
+        log.info("getItem: последовательно {} мс, параллельно {} мс", sequential, parallel);
+        assertThat(sequential).isGreaterThanOrEqualTo(2 * QUERY_MILLIS);
+        assertThat(parallel).isLessThan(sequential * 3 / 4);
+    }
+
+    private static long averageMillis(ParallelFetcher fetcher) {
+        ItemServiceImpl service = itemService(fetcher);
+        service.getItem(2L, 1L);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            service.getItem(2L, 1L);
+        }
+        return (System.nanoTime() - start) / 1_000_000 / ITERATIONS;
+    }
+
+    private static ItemServiceImpl itemService(ParallelFetcher fetcher) {
+        User owner = new User();
+        owner.setId(1L);
+        Item item = new Item();
+        item.setId(1L);
+        item.setName("Палатка");
+        item.setOwner(owner);
+
+        ItemRepository itemRepository = mock(ItemRepository.class);
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        CommentRepository commentRepository = mock(CommentRepository.class);
+        when(itemRepository.findById(any())).thenReturn(Optional.of(item));
+        when(bookingRepository.findByItemId(any())).thenAnswer(invocation -> slowQuery());
+        when(commentRepository.findByItemId(any())).thenAnswer(invocation -> slowQuery());
+
+        return new ItemServiceImpl(itemRepository, null, bookingRepository, null, commentRepository,
+                null, null, fetcher, null);
+    }
+
+    private static List<Object> slowQuery() throws InterruptedException {
+        Thread.sleep(QUERY_MILLIS);
+        return List.of();
+    }
+}
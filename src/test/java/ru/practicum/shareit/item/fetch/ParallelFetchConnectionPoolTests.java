@@ -0,0 +1,90 @@
+package ru.practicum.shareit.item.fetch;
+
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.item.dto.ItemDtoResponse;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Запросов больше, чем соединений в пуле: каждый держит своё соединение и ждёт задачу, которой нужно ещё одно.
+ * Без ограничения параллельных чтений задачи ждали бы соединение до connection-timeout и падали.
+ */
+@SpringBootTest(classes = ShareItApp.class, properties = {
+        "shareit.item.parallel-fetch.enabled=true",
+        "shareit.item.parallel-fetch.threads=1",
+        "spring.datasource.hikari.maximum-pool-size=3",
+        "spring.datasource.hikari.connection-timeout=1000"
+})
+public class ParallelFetchConnectionPoolTests {
+    private static final int CALLERS = 12;
+    private static final int CALLS = 20;
+
+    @Autowired
+    private ItemServiceImpl itemService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Test
+    void shouldNotExhaustConnectionPoolUnderConcurrentGetItem() throws Exception {
+        User owner = user("pool-owner");
+        User viewer = user("pool-viewer");
+        Item item = new Item();
+        item.setName("Генератор");
+        item.setDescription("Бензиновый генератор");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        Long itemId = itemRepository.save(item).getId();
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(callers.submit(() -> {
+                    start.await();
+                    int loaded = 0;
+                    for (int call = 0; call < CALLS; call++) {
+                        ItemDtoResponse response = itemService.getItem(viewer.getId(), itemId);
+                        if (response.getId().equals(itemId)) loaded++;
+                    }
+                    return loaded;
+                }));
+            }
+            start.countDown();
+
+            for (Future<Integer> result : results) {
+                assertThat(result.get(60, TimeUnit.SECONDS)).isEqualTo(CALLS);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + System.nanoTime() + "@example.com");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,117 @@
+package ru.practicum.shareit.item.fetch;
+
+import ru.practicum.shareit.exception.NotFoundException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParallelFetcherTests {
+    private final ParallelFetcher fetcher = ParallelFetcher.parallel(2);
+
+    @AfterEach
+    void tearDown() {
+        fetcher.close();
+    }
+
+    @Test
+    void shouldRunBothReadsConcurrently() {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch secondStarted = new CountDownLatch(1);
+
+        // Каждое чтение ждёт начала другого: при последовательном выполнении ожидание истекло бы
+        String result = fetcher.fetch(
+                () -> {
+                    firstStarted.countDown();
+                    return await(secondStarted) + "-" + Thread.currentThread().getName();
+                },
+                () -> {
+                    secondStarted.countDown();
+                    return await(firstStarted);
+                },
+                (first, second) -> first + "/" + second);
+
+        assertThat(result).startsWith("true-item-fetch-").endsWith("/true");
+    }
+
+    @Test
+    void shouldRethrowOriginalExceptionFromPool() {
+        assertThatThrownBy(() -> fetcher.fetch(
+                () -> {
+                    throw new NotFoundException("Не найдена вещь с id: 1");
+                },
+                () -> "comments",
+                (first, second) -> second))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("Не найдена вещь с id: 1");
+    }
+
+    @Test
+    void shouldCarryCallerContextIntoPoolThread() {
+        ThreadLocal<String> context = new ThreadLocal<>();
+        context.set("запрос-1");
+        try (ParallelFetcher decorated = ParallelFetcher.parallel(1, task -> {
+            String captured = context.get();
+            return () -> {
+                context.set(captured);
+                try {
+                    task.run();
+                } finally {
+                    context.remove();
+                }
+            };
+        })) {
+            String result = decorated.fetch(context::get, context::get, (first, second) -> first + "/" + second);
+
+            assertThat(result).isEqualTo("запрос-1/запрос-1");
+        } finally {
+            context.remove();
+        }
+    }
+
+    @Test
+    void shouldRunSequentiallyWhenDisabled() {
+        ParallelFetcher sequential = ParallelFetcher.sequential();
+        String caller = Thread.currentThread().getName();
+
+        String result = sequential.fetch(
+                () -> Thread.currentThread().getName(),
+                () -> Thread.currentThread().getName(),
+                (first, second) -> first + "/" + second);
+
+        assertThat(sequential.isParallel()).isFalse();
+        assertThat(result).isEqualTo(caller + "/" + caller);
+    }
+
+    @Test
+    void shouldRunSequentiallyWhenNoParallelFetchPermitLeft() {
+        String caller = Thread.currentThread().getName();
+
+        try (ParallelFetcher limited = ParallelFetcher.parallel(1, 1, task -> task)) {
+            // Внешнее чтение занимает единственное разрешение, вложенное выполняется в вызывающем потоке
+            String nested = limited.fetch(
+                    () -> "pool",
+                    () -> limited.fetch(
+                            () -> Thread.currentThread().getName(),
+                            () -> Thread.currentThread().getName(),
+                            (first, second) -> first + "/" + second),
+                    (first, second) -> second);
+
+            assertThat(nested).isEqualTo(caller + "/" + caller);
+        }
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.item.fetch;
+
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.item.dto.ItemDtoResponse;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = ShareItApp.class, properties = "shareit.item.parallel-fetch.enabled=true")
+public class ParallelItemFetchTests {
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ParallelFetcher parallelFetcher;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Test
+    void shouldReturnCommentsWithAuthorsWhenFetchedInParallel() {
+        User owner = user("parallel-owner");
+        User author = user("parallel-author");
+
+        Item item = new Item();
+        item.setName("Самокат");
+        item.setDescription("Складной самокат");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        item = itemRepository.save(item);
+
+        Comment comment = new Comment();
+        comment.setText("Катается отлично");
+        comment.setItem(item);
+        comment.setAuthor(author);
+        comment.setCreated(LocalDateTime.now());
+        commentRepository.save(comment);
+
+        // Бронирования читаются в пуле отдельной транзакцией, комментарии в вызывающем потоке
+        ItemDtoResponse response = itemService.getItem(author.getId(), item.getId());
+
+        assertThat(parallelFetcher.isParallel()).isTrue();
+        assertThat(response.getBookings()).isEmpty();
+        assertThat(response.getComments()).hasSize(1);
+        assertThat(response.getComments().getFirst().getAuthorName()).isEqualTo(author.getName());
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + System.nanoTime() + "@example.com");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,163 @@
+package ru.practicum.shareit.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageImpl;
+import ru.practicum.shareit.booking.archive.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.archive.BookingArchiveProperties;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingServiceImpl;
+import ru.practicum.shareit.item.fetch.ParallelFetcher;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemSummary;
+import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JfrEventsTests {
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    @Mock
+    private BookingArchiveProperties archiveProperties;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private ParallelFetcher parallelFetcher = ParallelFetcher.sequential();
+
+    @InjectMocks
+    private ItemServiceImpl itemService;
+
+    @InjectMocks
+    private BookingServiceImpl bookingService;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldRecordItemQueryEvents() throws Exception {
+        when(itemRepository.searchAvailableSummaries(eq("дрель"), any()))
+                .thenReturn(List.of(new ItemSummary(1L, "Дрель", "Ударная", true, null, 5L)));
+        when(itemRepository.findSummariesByOwnerId(eq(5L), any())).thenReturn(List.of());
+
+        List<RecordedEvent> events = record("shareit.ItemQuery", () -> {
+            itemService.getItemsByText("дрель");
+            itemService.getUserItems(5L);
+        });
+
+        assertEquals(2, events.size());
+        RecordedEvent search = events.getFirst();
+        assertEquals(ItemQueryEvent.SEARCH, search.getString("operation"));
+        assertEquals(5, search.getInt("textLength"));
+        assertEquals(1, search.getInt("resultSize"));
+
+        RecordedEvent userItems = events.get(1);
+        assertEquals(ItemQueryEvent.USER_ITEMS, userItems.getString("operation"));
+        assertEquals(5L, userItems.getLong("userId"));
+        assertEquals(0, userItems.getInt("resultSize"));
+    }
+
+    @Test
+    void shouldRecordBookingFindEvent() throws Exception {
+        User owner = new User();
+        owner.setId(5L);
+        User booker = new User();
+        booker.setId(7L);
+        Item item = new Item();
+        item.setId(1L);
+        item.setName("Дрель");
+        item.setOwner(owner);
+        Booking booking = new Booking();
+        booking.setId(3L);
+        booking.setStartDate(LocalDateTime.now().plusDays(1));
+        booking.setEndDate(LocalDateTime.now().plusDays(2));
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStatus(BookingStatus.WAITING);
+
+        when(userRepository.existsById(7L)).thenReturn(true);
+        when(bookingRepository.findByBookerIdAndStartDateIsAfter(eq(7L), any(), any()))
+                .thenReturn(new PageImpl<>(List.of(booking)));
+
+        List<RecordedEvent> events = record("shareit.BookingOperation",
+                () -> bookingService.getUserBookings(7L, "FUTURE", 0, 10));
+
+        assertEquals(1, events.size());
+        RecordedEvent event = events.getFirst();
+        assertEquals(BookingOperationEvent.FIND, event.getString("operation"));
+        assertEquals(7L, event.getLong("userId"));
+        assertEquals("FUTURE", event.getString("state"));
+        assertFalse(event.getBoolean("owner"));
+        assertEquals(1, event.getInt("resultSize"));
+    }
+
+    @Test
+    void shouldNotRecordDisabledEvents() throws Exception {
+        when(itemRepository.findSummariesByOwnerId(eq(5L), any())).thenReturn(List.of());
+
+        // Запись без явного включения: события выключены по умолчанию
+        try (Recording recording = new Recording()) {
+            recording.start();
+            itemService.getUserItems(5L);
+            recording.stop();
+            Path file = dir.resolve("disabled.jfr");
+            recording.dump(file);
+            assertTrue(RecordingFile.readAllEvents(file).stream()
+                    .noneMatch(e -> e.getEventType().getName().startsWith("shareit.")));
+        }
+    }
+
+    private List<RecordedEvent> record(String eventName, Runnable action) throws Exception {
+        try (Recording recording = new Recording()) {
+            recording.enable(eventName);
+            recording.start();
+            action.run();
+            recording.stop();
+            Path file = dir.resolve(eventName + ".jfr");
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getEventType().getName().equals(eventName))
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Итог прогона: пропускная способность и перцентили задержек по каждой операции и по всем вместе.
+ * Сериализуется в JSON, чтобы прогоны с разными настройками сравнивались скриптом.
+ */
+public record LoadReport(String label, int concurrency, long durationSeconds, Map<String, String> settings,
+                         OperationStats total, List<OperationStats> operations) {
+
+    public record OperationStats(String name, long count, long errors, double throughputPerSecond,
+                                 double p50Ms, double p90Ms, double p99Ms, double maxMs,
+                                 Map<Integer, Long> statuses) {
+    }
+
+    /**
+     * Замеры одной операции в одном потоке: задержки в наносекундах и коды ответов.
+     */
+    static final class Samples {
+        private long[] latencies = new long[1024];
+        private int size;
+        private final Map<Integer, Long> statuses = new TreeMap<>();
+
+        void add(long nanos, int status) {
+            if (size == latencies.length) latencies = Arrays.copyOf(latencies, size * 2);
+            latencies[size++] = nanos;
+            statuses.merge(status, 1L, Long::sum);
+        }
+
+        void addAll(Samples other) {
+            if (size + other.size > latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, size + other.size));
+            }
+            System.arraycopy(other.latencies, 0, latencies, size, other.size);
+            size += other.size;
+            other.statuses.forEach((status, count) -> statuses.merge(status, count, Long::sum));
+        }
+
+        OperationStats toStats(String name, Duration duration) {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            // Ошибкой считается всё, кроме 2xx и 304: конфликты бронирований тоже видны в statuses
+            long errors = statuses.entrySet().stream()
+                    .filter(e -> e.getKey() != 304 && (e.getKey() < 200 || e.getKey() >= 300))
+                    .mapToLong(Map.Entry::getValue)
+                    .sum();
+            return new OperationStats(name, size, errors, round(size / (duration.toMillis() / 1000.0)),
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                    size == 0 ? 0 : millis(sorted[size - 1]), new LinkedHashMap<>(statuses));
+        }
+    }
+
+    static LoadReport of(String label, int concurrency, Duration duration, Map<String, String> settings,
+                         Map<String, Samples> samples) {
+        Samples all = new Samples();
+        List<OperationStats> operations = new ArrayList<>();
+        samples.forEach((name, operation) -> {
+            all.addAll(operation);
+            operations.add(operation.toStats(name, duration));
+        });
+        return new LoadReport(label, concurrency, duration.toSeconds(), settings,
+                all.toStats("total", duration), operations);
+    }
+
+    // Ближайший ранг: значение, не меньшее доли quantile всех замеров
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return millis(sorted[Math.max(0, rank - 1)]);
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / 1_000_000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
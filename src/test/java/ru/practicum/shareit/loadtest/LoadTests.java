@@ -0,0 +1,237 @@
+package ru.practicum.shareit.loadtest;
+
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.dataset.DatasetLoader;
+import ru.practicum.shareit.dataset.DatasetProperties;
+import ru.practicum.shareit.dataset.ZipfSampler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Нагрузочный прогон всех основных эндпоинтов по HTTP против приложения на H2. Запускается
+ * профилем Maven: mvn test -P loadtest. Параметры прогона задаются системными свойствами
+ * loadtest.*, настройки приложения для сравнения - обычными свойствами, например
+ * -Dspring.threads.virtual.enabled=true -Dloadtest.label=virtual. Отчёт пишется
+ * в target/loadtest/{label}.json.
+ */
+@Slf4j
+@Tag("loadtest")
+@ActiveProfiles({"test", "loadtest"})
+@SpringBootTest(classes = ShareItApp.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class LoadTests {
+    private static final String X_SHARER_USER_ID = "X-Sharer-User-Id";
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final List<String> SEARCH_WORDS = List.of("дрель", "пила", "палатка", "велосипед",
+            "лестница", "проектор", "мощная", "компактная");
+    private static final List<String> REPORTED_SETTINGS = List.of("spring.threads.virtual.enabled",
+            "shareit.item.json-cache.enabled", "shareit.item.single-flight.enabled",
+            "shareit.item.parallel-fetch.enabled", "shareit.slow-query.enabled", "spring.jpa.show-sql");
+
+    // Каждые 10 секунд секунду идёт всплеск поиска: половина запросов в это время - поиск
+    private static final long BURST_PERIOD_MS = 10_000;
+    private static final long BURST_LENGTH_MS = 1_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DatasetLoader datasetLoader;
+
+    @Autowired
+    private DatasetProperties datasetProperties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Environment environment;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private long[] users;
+    private long[] items;
+    private long[] itemOwners;
+    private boolean[] itemAvailable;
+    private ZipfSampler hotUsers;
+    private ZipfSampler hotItems;
+
+    @Test
+    void shouldReportThroughputAndLatencies() throws Exception {
+        String label = System.getProperty("loadtest.label", "default");
+        int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+        Duration warmup = Duration.parse(System.getProperty("loadtest.warmup", "PT5S"));
+        Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT30S"));
+
+        seed();
+        run(concurrency, warmup);
+        Map<String, LoadReport.Samples> samples = run(concurrency, duration);
+
+        Map<String, String> settings = new LinkedHashMap<>();
+        REPORTED_SETTINGS.forEach(key -> settings.put(key, environment.getProperty(key)));
+        LoadReport report = LoadReport.of(label, concurrency, duration, settings, samples);
+
+        Path file = Path.of("target", "loadtest", label + ".json");
+        Files.createDirectories(file.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        log.warn("Нагрузочный прогон {}: {} запросов, {} в секунду, p99 {} мс, отчёт {}", label,
+                report.total().count(), report.total().throughputPerSecond(), report.total().p99Ms(), file);
+
+        // Чтения не должны падать под нагрузкой; отказы при бронировании популярных вещей допустимы
+        assertThat(report.operations())
+                .filteredOn(stats -> !stats.name().equals("createBooking"))
+                .allSatisfy(stats -> assertThat(stats.errors()).as(stats.name()).isZero());
+        assertThat(report.total().count()).isPositive();
+    }
+
+    private void seed() {
+        long userBase = maxId("users");
+        long itemBase = maxId("items");
+        datasetLoader.load(datasetProperties);
+
+        users = jdbcTemplate.queryForList("select id from users where id > ? order by id", Long.class, userBase)
+                .stream().mapToLong(Long::longValue).toArray();
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "select id, owner_id, is_available from items where id > ? order by id", itemBase);
+        items = new long[rows.size()];
+        itemOwners = new long[rows.size()];
+        itemAvailable = new boolean[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            items[i] = ((Number) rows.get(i).get("id")).longValue();
+            itemOwners[i] = ((Number) rows.get(i).get("owner_id")).longValue();
+            itemAvailable[i] = (Boolean) rows.get(i).get("is_available");
+        }
+        // Запросы распределены так же, как данные: популярные вещи и крупные владельцы получают больше
+        hotUsers = new ZipfSampler(users.length, datasetProperties.getOwnerSkew());
+        hotItems = new ZipfSampler(items.length, datasetProperties.getItemSkew());
+    }
+
+    private Map<String, LoadReport.Samples> run(int concurrency, Duration duration) throws Exception {
+        long start = System.currentTimeMillis();
+        long deadline = start + duration.toMillis();
+        List<Future<Map<String, LoadReport.Samples>>> workers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                SplittableRandom random = new SplittableRandom(i);
+                workers.add(executor.submit(() -> work(random, start, deadline)));
+            }
+        }
+
+        Map<String, LoadReport.Samples> merged = new LinkedHashMap<>();
+        for (Future<Map<String, LoadReport.Samples>> worker : workers) {
+            worker.get().forEach((name, samples) ->
+                    merged.computeIfAbsent(name, key -> new LoadReport.Samples()).addAll(samples));
+        }
+        return merged;
+    }
+
+    private Map<String, LoadReport.Samples> work(SplittableRandom random, long start, long deadline) throws Exception {
+        Map<String, LoadReport.Samples> samples = new LinkedHashMap<>();
+        long now;
+        while ((now = System.currentTimeMillis()) < deadline) {
+            boolean burst = (now - start) % BURST_PERIOD_MS < BURST_LENGTH_MS;
+            Operation operation = burst && random.nextBoolean() ? search(random) : next(random);
+
+            long begin = System.nanoTime();
+            int status = client.send(operation.request(), HttpResponse.BodyHandlers.discarding()).statusCode();
+            samples.computeIfAbsent(operation.name(), key -> new LoadReport.Samples())
+                    .add(System.nanoTime() - begin, status);
+        }
+        return samples;
+    }
+
+    // Смесь: 80% чтений, 5% поиска вне всплесков, 15% бронирований популярных вещей
+    private Operation next(SplittableRandom random) {
+        int roll = random.nextInt(100);
+        int item = hotItems.sample(random);
+        long user = users[hotUsers.sample(random)];
+        if (roll < 30) return get("getItem", "/items/" + items[item], user);
+        if (roll < 45) return get("getUserItems", "/items", users[hotUsers.sample(random)]);
+        if (roll < 60) return get("getUserBookings", "/bookings?state=ALL", randomUser(random));
+        if (roll < 70) return get("getOwnerBookings", "/bookings/owner?state=ALL", user);
+        if (roll < 80) return get("getUser", "/users/" + randomUser(random), user);
+        if (roll < 85) return search(random);
+        return createBooking(random);
+    }
+
+    private Operation search(SplittableRandom random) {
+        String word = SEARCH_WORDS.get(random.nextInt(SEARCH_WORDS.size()));
+        return get("search", "/items/search?text=" + URLEncoder.encode(word, StandardCharsets.UTF_8),
+                randomUser(random));
+    }
+
+    private Operation createBooking(SplittableRandom random) {
+        int item = hotItems.sample(random);
+        while (!itemAvailable[item]) {
+            item = hotItems.sample(random);
+        }
+        long booker = randomUser(random);
+        if (booker == itemOwners[item]) booker = users[(int) ((booker - users[0] + 1) % users.length)];
+
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+                .plusDays(1 + random.nextInt(60))
+                .plusSeconds(random.nextInt(86_400));
+        String body = "{\"itemId\":" + items[item] + ",\"start\":\"" + DATE_TIME.format(start)
+                + "\",\"end\":\"" + DATE_TIME.format(start.plusDays(1 + random.nextInt(7))) + "\"}";
+        return new Operation("createBooking", request("/bookings", booker)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build());
+    }
+
+    private long randomUser(SplittableRandom random) {
+        return users[random.nextInt(users.length)];
+    }
+
+    private Operation get(String name, String path, long userId) {
+        return new Operation(name, request(path, userId).GET().build());
+    }
+
+    private HttpRequest.Builder request(String path, long userId) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30))
+                .header(X_SHARER_USER_ID, String.valueOf(userId));
+    }
+
+    private long maxId(String table) {
+        return jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+    }
+
+    private record Operation(String name, HttpRequest request) {
+    }
+}
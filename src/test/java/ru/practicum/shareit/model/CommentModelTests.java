@@ -70,12 +70,13 @@ public class CommentModelTests {
     }
 
     @Test
-    void shouldTestEqualsSameId() {
+    void shouldTestEqualsSameUuid() {
         Comment c1 = new Comment();
         c1.setId(1L);
 
         Comment c2 = new Comment();
         c2.setId(1L);
+        c2.setUuid(c1.getUuid());
 
         assertThat(c1).isEqualTo(c2);
     }
@@ -109,6 +110,7 @@ public class CommentModelTests {
 
         Comment c2 = new Comment();
         c2.setId(1L);
+        c2.setUuid(c1.getUuid());
 
         assertThat(c1.hashCode()).isEqualTo(c2.hashCode());
     }
@@ -125,8 +127,7 @@ public class CommentModelTests {
         comment.setText("Отлично!");
         comment.setCreated(LocalDateTime.of(2026, 2, 9, 12, 0));
 
-        String expected = "Comment(id=1, text=Отлично!, created=2026-02-09T12:00";
-        assertThat(comment.toString()).contains(expected);
+        assertThat(comment.toString()).isEqualTo("Comment(id=1)");
 
         assertThat(comment.toString()).doesNotContain("item=");
         assertThat(comment.toString()).doesNotContain("author=");
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.model;
+
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Операции с множествами загруженных сущностей: при общем для класса хэше они вырождались в O(n).
+ * Вещи и брони читаются из базы, бронирования - после очистки контекста, поэтому их вещи - другие
+ * экземпляры тех же строк и группировка опирается на uuid, прочитанный из базы. Запуск: mvn test -P benchmark.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(classes = ShareItApp.class)
+class EntityHashBenchmarkTests {
+    private static final int ENTITIES = 20_000;
+    private static final int BOOKED_ITEMS = 1000;
+    private static final int FLUSH_EVERY = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void hashSetOfLoadedEntitiesShouldStayConstantTimePerOperation() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Long ownerId = transaction.execute(status -> persistEntities());
+
+        transaction.executeWithoutResult(status -> {
+            List<Item> items = entityManager.createQuery(
+                            "select i from Item i where i.owner.id = :ownerId order by i.id", Item.class)
+                    .setParameter("ownerId", ownerId)
+                    .getResultList();
+
+            long start = System.nanoTime();
+            Set<Item> set = new HashSet<>(items);
+            int found = 0;
+            for (Item item : items) {
+                if (set.contains(item)) found++;
+            }
+            long setMillis = (System.nanoTime() - start) / 1_000_000;
+
+            entityManager.clear();
+            List<Booking> bookings = entityManager.createQuery(
+                            "select b from Booking b join fetch b.item where b.booker.id = :ownerId", Booking.class)
+                    .setParameter("ownerId", ownerId)
+                    .getResultList();
+
+            start = System.nanoTime();
+            Map<Item, List<Booking>> byItem = bookings.stream().collect(Collectors.groupingBy(Booking::getItem));
+            long groupMillis = (System.nanoTime() - start) / 1_000_000;
+
+            log.info("{} загруженных сущностей: HashSet add+contains {} мс, группировка бронирований по вещи {} мс",
+                    ENTITIES, setMillis, groupMillis);
+            assertThat(found).isEqualTo(ENTITIES);
+            assertThat(byItem).hasSize(BOOKED_ITEMS);
+            assertThat(setMillis + groupMillis).isLessThan(2_000);
+        });
+    }
+
+    private Long persistEntities() {
+        User owner = new User();
+        owner.setName("hash-benchmark");
+        owner.setEmail("hash-benchmark" + System.nanoTime() + "@example.com");
+        entityManager.persist(owner);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Item> bookedItems = new ArrayList<>(BOOKED_ITEMS);
+        for (int i = 0; i < ENTITIES; i++) {
+            Item item = new Item();
+            item.setName("Вещь " + i);
+            item.setDescription("Вещь для замера хэшей " + i);
+            item.setAvailable(true);
+            item.setOwner(owner);
+            entityManager.persist(item);
+            if (bookedItems.size() < BOOKED_ITEMS) bookedItems.add(item);
+        }
+        for (int i = 0; i < ENTITIES; i++) {
+            Booking booking = new Booking();
+            booking.setItem(bookedItems.get(i % BOOKED_ITEMS));
+            booking.setBooker(owner);
+            booking.setStartDate(now.plusDays(1));
+            booking.setEndDate(now.plusDays(2));
+            booking.setStatus(BookingStatus.WAITING);
+            entityManager.persist(booking);
+            if (i % FLUSH_EVERY == 0) entityManager.flush();
+        }
+        return owner.getId();
+    }
+}
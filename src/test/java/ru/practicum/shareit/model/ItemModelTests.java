@@ -8,6 +8,9 @@ import jakarta.persistence.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class ItemModelTests {
@@ -71,12 +74,14 @@ public class ItemModelTests {
     }
 
     @Test
-    void shouldTestEqualsSameId() {
+    void shouldTestEqualsSameUuid() {
         Item item1 = new Item();
         item1.setId(1L);
 
         Item item2 = new Item();
         item2.setId(1L);
+        // Копии одной строки, загруженные в разных сессиях, получают из базы один uuid
+        item2.setUuid(item1.getUuid());
 
         assertThat(item1).isEqualTo(item2);
     }
@@ -110,10 +115,34 @@ public class ItemModelTests {
 
         Item item2 = new Item();
         item2.setId(1L);
+        item2.setUuid(item1.getUuid());
 
         assertThat(item1.hashCode()).isEqualTo(item2.hashCode());
     }
 
+    @Test
+    void shouldSpreadHashCodesAndKeepThemAfterPersist() {
+        Item item1 = new Item();
+        item1.setId(1L);
+
+        Item item2 = new Item();
+        item2.setId(2L);
+
+        assertThat(item1.hashCode()).isNotEqualTo(item2.hashCode());
+
+        // Сохранённая до persist вещь остаётся в множестве и после получения id
+        Set<Item> items = new HashSet<>();
+        items.add(item);
+        item.setId(3L);
+        assertThat(items).contains(item);
+
+        // Копия той же строки из другой сессии равна ей и лежит в той же корзине
+        Item loaded = new Item();
+        loaded.setId(3L);
+        loaded.setUuid(item.getUuid());
+        assertThat(items).contains(loaded);
+    }
+
     @Test
     void shouldTestHashCodeConsistency() {
         int hashCode = item.hashCode();
@@ -127,8 +156,8 @@ public class ItemModelTests {
         item.setDescription("Электрическая дрель");
         item.setAvailable(false);
 
-        String expected = "Item(id=1, name=Дрель, description=Электрическая дрель, available=false";
-        assertThat(item.toString()).contains(expected);
+        assertThat(item.toString()).isEqualTo("Item(id=1)");
+        assertThat(item.toString()).doesNotContain("owner=");
     }
 
     // Тестируем аннотации JPA
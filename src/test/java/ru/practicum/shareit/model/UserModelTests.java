@@ -54,12 +54,13 @@ public class UserModelTests {
     }
 
     @Test
-    void shouldTestEqualsSameId() {
+    void shouldTestEqualsSameUuid() {
         User user1 = new User();
         user1.setId(1L);
 
         User user2 = new User();
         user2.setId(1L);
+        user2.setUuid(user1.getUuid());
 
         assertThat(user1).isEqualTo(user2);
     }
@@ -93,6 +94,7 @@ public class UserModelTests {
 
         User user2 = new User();
         user2.setId(1L);
+        user2.setUuid(user1.getUuid());
 
         assertThat(user1.hashCode()).isEqualTo(user2.hashCode());
     }
@@ -110,8 +112,7 @@ public class UserModelTests {
         user.setName("John");
         user.setEmail("john@example.com");
 
-        String expected = "User(id=1, name=John, email=john@example.com)";
-        assertThat(user.toString()).contains(expected);
+        assertThat(user.toString()).isEqualTo("User(id=1)");
     }
 
     // Тестируем уникальность email (косвенно через аннотацию)
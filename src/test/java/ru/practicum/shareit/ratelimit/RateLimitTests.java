@@ -0,0 +1,119 @@
+package ru.practicum.shareit.ratelimit;
+
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.item.service.ItemService;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(classes = ShareItApp.class, properties = {
+        "shareit.rate-limit.endpoints[0].name=search",
+        "shareit.rate-limit.endpoints[0].method=GET",
+        "shareit.rate-limit.endpoints[0].pattern=/items/search",
+        "shareit.rate-limit.endpoints[0].capacity=2",
+        "shareit.rate-limit.endpoints[0].refill-per-second=0.01"
+})
+@AutoConfigureMockMvc
+public class RateLimitTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ItemService itemService;
+
+    @Test
+    void shouldRejectRequestsOverEndpointBudgetWithRetryAfter() throws Exception {
+        when(itemService.getItemsByText(anyString(), anyInt(), anyInt(), any())).thenReturn(List.of());
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/items/search").param("text", "дрель").header("X-Sharer-User-Id", 7L))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get("/items/search").param("text", "дрель").header("X-Sharer-User-Id", 7L))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "100"))
+                .andExpect(jsonPath("$.error").exists());
+
+        // Бюджет ведётся отдельно для каждого пользователя
+        mockMvc.perform(get("/items/search").param("text", "дрель").header("X-Sharer-User-Id", 8L))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldLimitAnonymousRequestsByRemoteAddress() throws Exception {
+        when(itemService.getItemsByText(anyString(), anyInt(), anyInt(), any())).thenReturn(List.of());
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/items/search").param("text", "пила").with(remoteAddr("198.51.100.1")))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get("/items/search").param("text", "пила").with(remoteAddr("198.51.100.1")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.error").value("Превышен лимит запросов для адреса 198.51.100.1"));
+
+        // Анонимные клиенты с разных адресов не делят бюджет
+        mockMvc.perform(get("/items/search").param("text", "пила").with(remoteAddr("198.51.100.2")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldFailAtStartupOnInvalidBudget() {
+        new ApplicationContextRunner()
+                .withUserConfiguration(RateLimitConfig.class)
+                .withBean(ObjectMapper.class)
+                .withPropertyValues("shareit.rate-limit.endpoints[0].name=search",
+                        "shareit.rate-limit.endpoints[0].capacity=0",
+                        "shareit.rate-limit.endpoints[0].refill-per-second=1")
+                .run(context -> assertThat(context).hasFailed()
+                        .getFailure().rootCause().hasMessageContaining("capacity")
+                        .hasMessageContaining("pattern"));
+    }
+
+    @Test
+    void shouldAllowBurstUpToCapacityAndRefillOverTime() {
+        long second = TimeUnit.SECONDS.toNanos(1);
+        TokenBucket bucket = new TokenBucket(3, 1, 0);
+
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isEqualTo(second);
+
+        assertThat(bucket.tryAcquire(second)).isZero();
+        assertThat(bucket.tryAcquire(second)).isEqualTo(second);
+
+        // После долгого простоя накапливается не больше capacity токенов
+        long later = 100 * second;
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.tryAcquire(later)).isZero();
+        }
+        assertThat(bucket.tryAcquire(later)).isPositive();
+    }
+
+    private static RequestPostProcessor remoteAddr(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.requestlog;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestLogFilterTests {
+    private final Logger logger = (Logger) LoggerFactory.getLogger(RequestLogFilter.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final RequestLogProperties properties = new RequestLogProperties();
+
+    @BeforeEach
+    void setUp() {
+        properties.setSampleRate(0.0);
+        properties.setSlowThreshold(Duration.ofMillis(300));
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void shouldSkipFastRequestOutsideSample() throws Exception {
+        perform("GET", "/items", 200, Duration.ofMillis(10));
+
+        assertThat(appender.list).isEmpty();
+    }
+
+    @Test
+    void shouldAlwaysLogSlowRequestAsWarning() throws Exception {
+        perform("GET", "/items", 200, Duration.ofMillis(450));
+
+        assertThat(appender.list).hasSize(1);
+        ILoggingEvent event = appender.list.getFirst();
+        assertThat(event.getLevel()).isEqualTo(Level.WARN);
+        assertThat(event.getFormattedMessage()).isEqualTo("GET /items -> 200 за 450 мс");
+        assertThat(event.getKeyValuePairs()).anyMatch(pair -> pair.key.equals("userId") && "7".equals(pair.value));
+    }
+
+    @Test
+    void shouldAlwaysLogServerErrors() throws Exception {
+        perform("POST", "/bookings", 500, Duration.ofMillis(5));
+
+        assertThat(appender.list).extracting(ILoggingEvent::getLevel).containsExactly(Level.WARN);
+    }
+
+    @Test
+    void shouldUseEndpointSampleRate() throws Exception {
+        RequestLogProperties.Endpoint search = new RequestLogProperties.Endpoint();
+        search.setMethod("GET");
+        search.setPattern("/items/search");
+        search.setSampleRate(1.0);
+        properties.setEndpoints(List.of(search));
+
+        perform("GET", "/items/search", 200, Duration.ofMillis(5));
+        perform("GET", "/items", 200, Duration.ofMillis(5));
+
+        // Для поиска задана полная выборка, остальные запросы идут по общей доле 0
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage)
+                .containsExactly("GET /items/search -> 200 за 5 мс");
+        assertThat(appender.list.getFirst().getLevel()).isEqualTo(Level.INFO);
+    }
+
+    private void perform(String method, String uri, int status, Duration duration) throws Exception {
+        RequestLogFilter filter = new RequestLogFilter(properties, clock::get, () -> 0.5);
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.addHeader("X-Sharer-User-Id", "7");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain() {
+            @Override
+            public void doFilter(jakarta.servlet.ServletRequest req, jakarta.servlet.ServletResponse res) {
+                clock.addAndGet(duration.toNanos());
+                ((MockHttpServletResponse) res).setStatus(status);
+            }
+        });
+    }
+}
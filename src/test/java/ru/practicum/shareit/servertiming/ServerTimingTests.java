@@ -0,0 +1,116 @@
+package ru.practicum.shareit.servertiming;
+
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.item.fetch.ParallelFetcher;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = ShareItApp.class, properties = "shareit.server-timing.enabled=true")
+@AutoConfigureMockMvc
+public class ServerTimingTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setName("timing-owner");
+        owner.setEmail("timing-owner" + System.nanoTime() + "@example.com");
+        owner = userRepository.save(owner);
+    }
+
+    @Test
+    void shouldReportPhasesWhenDebugHeaderPresent() throws Exception {
+        String serverTiming = mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .header("X-Server-Timing", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray())
+                .andReturn().getResponse().getHeader("Server-Timing");
+
+        // Проверка пользователя и страница бронирований видны отдельными фазами со своими запросами
+        assertThat(serverTiming)
+                .containsPattern("UserRepository\\.\\w+;desc=\"1 calls, 1 statements\";dur=\\d+\\.\\d{2}")
+                .containsPattern("BookingRepository\\.findByItemOwnerId;desc=\"1 calls, \\d+ statements\"")
+                .contains("lazy;desc=\"0 statements\"")
+                .containsPattern("db;desc=\"\\d+ statements\"")
+                .contains("handler;dur=", "serialization;dur=", "total;dur=");
+    }
+
+    @Test
+    void shouldCountStatementsOfPoolTasks() {
+        ServerTiming timing = ServerTiming.begin();
+        try (ParallelFetcher fetcher = ParallelFetcher.parallel(1, ServerTiming::withCurrent)) {
+            fetcher.fetch(() -> {
+                ServerTiming.statementExecuted(1_000_000);
+                return null;
+            }, () -> {
+                ServerTiming.statementExecuted(1_000_000);
+                return null;
+            }, (first, second) -> null);
+
+            assertThat(timing.toHeader()).contains("db;desc=\"2 statements\"");
+        } finally {
+            ServerTiming.end();
+        }
+    }
+
+    @Test
+    void shouldNotAddHeaderWithoutDebugHeader() throws Exception {
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Server-Timing"));
+    }
+
+    @Test
+    void shouldNotAddHeaderForUntrustedAddress() throws Exception {
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .header("X-Server-Timing", "1")
+                        .with(request -> {
+                            request.setRemoteAddr("203.0.113.7");
+                            return request;
+                        }))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Server-Timing"));
+    }
+
+    @Test
+    void shouldRegisterAdviceOnlyWhenServerTimingEnabled() {
+        ApplicationContextRunner runner = new ApplicationContextRunner().withUserConfiguration(ServerTimingAdvice.class);
+
+        runner.run(context -> assertThat(context).doesNotHaveBean(ServerTimingAdvice.class));
+        runner.withPropertyValues("shareit.server-timing.enabled=true")
+                .run(context -> assertThat(context).hasSingleBean(ServerTimingAdvice.class));
+    }
+
+    @Test
+    void shouldFailWithoutSlowQueryDataSource() {
+        assertThatThrownBy(() -> new ServerTimingConfig()
+                .serverTimingFilter(new ServerTimingProperties(), new SimpleDriverDataSource()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("shareit.slow-query.enabled");
+    }
+}
@@ -1,5 +1,8 @@
 package ru.practicum.shareit.service;
 
+import ru.practicum.shareit.booking.archive.ArchivedBooking;
+import ru.practicum.shareit.booking.archive.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.archive.BookingArchiveProperties;
 import ru.practicum.shareit.booking.dto.*;
 import ru.practicum.shareit.booking.model.*;
 import ru.practicum.shareit.exception.*;
@@ -8,11 +11,16 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingStateCounts;
+import ru.practicum.shareit.booking.repository.BookingVersion;
+import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
+import ru.practicum.shareit.common.FieldSet;
 
 import org.mockito.Mock;
 import org.mockito.InjectMocks;
 import org.junit.jupiter.api.BeforeEach;
+import org.springframework.context.ApplicationEventPublisher;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -20,6 +28,7 @@ import org.springframework.data.domain.*;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -36,6 +45,15 @@ public class BookingServiceTests {
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    @Mock
+    private BookingArchiveProperties archiveProperties;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private BookingServiceImpl bookingService;
 
@@ -197,6 +215,29 @@ public class BookingServiceTests {
         assertEquals(booking.getId(), result.getId());
     }
 
+    @Test
+    void shouldBuildBookingETagFromBookingItemAndBookerVersions() {
+        BookingVersion version = mock(BookingVersion.class);
+        when(version.getVersion()).thenReturn(3L);
+        when(version.getItemVersion()).thenReturn(7L);
+        when(version.getBookerVersion()).thenReturn(1L);
+        when(version.getBookerId()).thenReturn(1L);
+        when(bookingRepository.findVersionById(100L)).thenReturn(Optional.of(version));
+
+        assertEquals(Optional.of("3.7.1"), bookingService.getBookingETag(1L, 100L));
+    }
+
+    @Test
+    void shouldNotGiveBookingETagToStranger() {
+        BookingVersion version = mock(BookingVersion.class);
+        when(version.getBookerId()).thenReturn(1L);
+        when(version.getOwnerId()).thenReturn(2L);
+        when(bookingRepository.findVersionById(100L)).thenReturn(Optional.of(version));
+
+        // Посторонний пользователь должен получить ошибку доступа, а не 304
+        assertTrue(bookingService.getBookingETag(99L, 100L).isEmpty());
+    }
+
     @Test
     void shouldThrowNotFoundExceptionWhenBookingNotFoundByGetBooking() {
         when(bookingRepository.findById(eq(100L))).thenReturn(Optional.empty());
@@ -247,6 +288,75 @@ public class BookingServiceTests {
         verify(bookingRepository).findByBookerIdAndEndDateIsBefore(any(), any(), any());
     }
 
+    @Test
+    void shouldMergeArchivedBookingsWhenStatePastAndArchiveEnabled() {
+        booking.setStartDate(now.minusDays(3));
+        booking.setEndDate(now.minusDays(2));
+
+        ArchivedBooking archived = new ArchivedBooking();
+        archived.setId(50L);
+        archived.setBooker(booker);
+        archived.setItem(item);
+        archived.setStartDate(now.minusYears(2));
+        archived.setEndDate(now.minusYears(2).plusDays(1));
+        archived.setStatus(BookingStatus.APPROVED);
+
+        when(archiveProperties.isEnabled()).thenReturn(true);
+        when(userRepository.existsById(eq(1L))).thenReturn(true);
+        when(bookingRepository.findByBookerIdAndEndDateIsBefore(
+                eq(1L), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(booking)));
+        when(archivedBookingRepository.findByBookerIdAndEndDateIsBefore(
+                eq(1L), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(archived)));
+
+        List<BookingDtoResponse> result = new ArrayList<>(bookingService.getUserBookings(1L, "PAST", 0, 10));
+
+        assertEquals(2, result.size());
+        assertEquals(100L, result.get(0).getId());
+        assertEquals(50L, result.get(1).getId());
+    }
+
+    @Test
+    void shouldNotTouchLazyItemAndBookerWhenNotRequested() {
+        Item lazyItem = mock(Item.class);
+        User lazyBooker = mock(User.class);
+        booking.setItem(lazyItem);
+        booking.setBooker(lazyBooker);
+
+        when(userRepository.existsById(eq(1L))).thenReturn(true);
+        when(bookingRepository.findByBookerId(eq(1L), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(booking)));
+
+        BookingDtoResponse result = bookingService.getUserBookings(1L, "ALL", 0, 10, FieldSet.parse("id,status"))
+                .iterator().next();
+
+        assertNull(result.getItem());
+        assertNull(result.getBooker());
+        verifyNoInteractions(lazyItem, lazyBooker);
+    }
+
+    @Test
+    void shouldClampBookingsPageSize() {
+        when(userRepository.existsById(eq(2L))).thenReturn(true);
+        when(bookingRepository.findByItemOwnerId(eq(2L),
+                argThat(page -> page.getPageSize() == BookingService.MAX_PAGE_SIZE)))
+                .thenReturn(new PageImpl<>(List.of(booking)));
+
+        assertEquals(1, bookingService.getOwnerBookings(2L, "ALL", 0, 1_000_000_000).size());
+    }
+
+    @Test
+    void shouldNotQueryArchiveForNonPastStates() {
+        when(userRepository.existsById(eq(1L))).thenReturn(true);
+        when(bookingRepository.findByBookerId(eq(1L), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(booking)));
+
+        bookingService.getUserBookings(1L, "ALL", 0, 10);
+
+        verifyNoInteractions(archivedBookingRepository);
+    }
+
     @Test
     void shouldThrowNotFoundExceptionWhenUserNotFoundByGetUserBooking() {
         when(userRepository.existsById(eq(1L))).thenReturn(false);
@@ -284,4 +394,101 @@ public class BookingServiceTests {
         assertTrue(exception.getMessage().contains("Пользователь с id 2 не найден"));
         verify(userRepository).existsById(2L);
     }
+
+    @Test
+    void shouldReturnOwnerBookingsSummaryForAllStates() {
+        BookingStateCounts counts = mock(BookingStateCounts.class);
+        when(counts.get(any(BookingState.class))).thenCallRealMethod();
+        when(counts.getTotal()).thenReturn(1L);
+        when(counts.getFutureCount()).thenReturn(1L);
+        when(counts.getWaitingCount()).thenReturn(1L);
+
+        Page<Booking> page = new PageImpl<>(List.of(booking), PageRequest.of(0, 5), 1);
+
+        when(userRepository.existsById(eq(2L))).thenReturn(true);
+        when(bookingRepository.countByItemOwnerIdPerState(eq(2L), any(LocalDateTime.class))).thenReturn(counts);
+        when(bookingRepository.findByItemOwnerId(eq(2L), any(Pageable.class))).thenReturn(page);
+
+        List<BookingStateSummaryDto> result = new ArrayList<>(bookingService.getOwnerBookingsSummary(2L, 5));
+
+        assertEquals(BookingState.values().length, result.size());
+        for (BookingStateSummaryDto summary : result) {
+            boolean hasBookings = EnumSet.of(BookingState.ALL, BookingState.FUTURE, BookingState.WAITING)
+                    .contains(summary.getState());
+            assertEquals(hasBookings ? 1 : 0, summary.getCount());
+            assertEquals(hasBookings ? 1 : 0, summary.getBookings().size());
+        }
+
+        // Все бронирования поместились в страницу ALL, страницы состояний выбраны из неё без запросов
+        verify(bookingRepository).findByItemOwnerId(eq(2L), any(Pageable.class));
+        verify(bookingRepository, never()).findByItemOwnerIdAndStartDateIsAfter(any(), any(), any());
+        verify(bookingRepository, never()).findByItemOwnerIdAndStatus(any(), any(), any());
+        verify(bookingRepository, never()).findByItemOwnerIdAndEndDateIsBefore(any(), any(), any());
+        verify(bookingRepository).countByItemOwnerIdPerState(eq(2L), any(LocalDateTime.class));
+    }
+
+    @Test
+    void shouldClampOwnerBookingsSummaryPageSize() {
+        BookingStateCounts counts = mock(BookingStateCounts.class);
+        when(counts.get(any(BookingState.class))).thenCallRealMethod();
+        when(counts.getTotal()).thenReturn(1L);
+
+        when(userRepository.existsById(eq(2L))).thenReturn(true);
+        when(bookingRepository.countByItemOwnerIdPerState(eq(2L), any(LocalDateTime.class))).thenReturn(counts);
+        when(bookingRepository.findByItemOwnerId(eq(2L),
+                argThat(page -> page.getPageSize() == BookingService.MAX_PAGE_SIZE)))
+                .thenReturn(new PageImpl<>(List.of(booking)));
+
+        List<BookingStateSummaryDto> result =
+                new ArrayList<>(bookingService.getOwnerBookingsSummary(2L, 1_000_000_000));
+
+        assertEquals(BookingState.ALL, result.get(0).getState());
+        assertEquals(1, result.get(0).getBookings().size());
+    }
+
+    @Test
+    void shouldCountArchivedBookingsInOwnerPastSummary() {
+        BookingStateCounts counts = mock(BookingStateCounts.class);
+        when(counts.get(any(BookingState.class))).thenCallRealMethod();
+        when(counts.getTotal()).thenReturn(1L);
+        when(counts.getFutureCount()).thenReturn(1L);
+        when(counts.getWaitingCount()).thenReturn(1L);
+
+        ArchivedBooking archived = new ArchivedBooking();
+        archived.setId(50L);
+        archived.setBooker(booker);
+        archived.setItem(item);
+        archived.setStartDate(now.minusDays(200));
+        archived.setEndDate(now.minusDays(199));
+        archived.setStatus(BookingStatus.APPROVED);
+
+        when(userRepository.existsById(eq(2L))).thenReturn(true);
+        when(archiveProperties.isEnabled()).thenReturn(true);
+        when(bookingRepository.countByItemOwnerIdPerState(eq(2L), any(LocalDateTime.class))).thenReturn(counts);
+        when(archivedBookingRepository.countByItemOwnerIdAndEndDateIsBefore(eq(2L), any(LocalDateTime.class)))
+                .thenReturn(1L);
+        when(bookingRepository.findByItemOwnerId(eq(2L), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(booking)));
+        when(bookingRepository.findByItemOwnerIdAndEndDateIsBefore(eq(2L), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(Page.empty());
+        when(archivedBookingRepository.findByItemOwnerIdAndEndDateIsBefore(
+                eq(2L), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(archived)));
+
+        Map<BookingState, BookingStateSummaryDto> result = bookingService.getOwnerBookingsSummary(2L, 5).stream()
+                .collect(Collectors.toMap(BookingStateSummaryDto::getState, summary -> summary));
+
+        // Архив входит в PAST, как и в списке прошедших бронирований, а ALL считается по рабочей таблице
+        assertEquals(1, result.get(BookingState.PAST).getCount());
+        assertEquals(50L, result.get(BookingState.PAST).getBookings().iterator().next().getId());
+        assertEquals(1, result.get(BookingState.ALL).getCount());
+    }
+
+    @Test
+    void shouldThrowNotFoundExceptionWhenOwnerNotFoundByGetOwnerBookingsSummary() {
+        when(userRepository.existsById(eq(2L))).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> bookingService.getOwnerBookingsSummary(2L, 10));
+        verify(bookingRepository, never()).countByItemOwnerIdPerState(any(), any());
+    }
 }
@@ -0,0 +1,81 @@
+package ru.practicum.shareit.service;
+
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDtoResponse;
+import ru.practicum.shareit.item.service.CoalescingItemServiceImpl;
+import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.item.service.ItemSingleFlightProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CoalescingItemServiceTests {
+    @Mock
+    private ItemServiceImpl itemServiceImpl;
+
+    private CoalescingItemServiceImpl itemService;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        itemService = new CoalescingItemServiceImpl(itemServiceImpl, new SimpleMeterRegistry(),
+                new ItemSingleFlightProperties());
+    }
+
+    @Test
+    void shouldHideBookingDatesFromNonOwner() {
+        when(itemServiceImpl.getOwnerView(1L)).thenReturn(ownerView());
+
+        ItemDtoResponse response = itemService.getItem(3L, 1L);
+
+        assertThat(response.getName()).isEqualTo("Ноутбук");
+        assertThat(response.getLastBooking()).isNull();
+        assertThat(response.getNextBooking()).isNull();
+    }
+
+    @Test
+    void shouldGiveEachCallerOwnCopy() {
+        ItemDtoResponse ownerView = ownerView();
+        when(itemServiceImpl.getOwnerView(1L)).thenReturn(ownerView);
+
+        ItemDtoResponse response = itemService.getItem(2L, 1L);
+        response.setName("Изменено вызывающим");
+
+        assertThat(response).isNotSameAs(ownerView);
+        assertThat(response.getLastBooking()).isEqualTo(now.minusDays(1));
+        assertThat(ownerView.getName()).isEqualTo("Ноутбук");
+    }
+
+    @Test
+    void shouldPropagateNotFoundFromLoad() {
+        when(itemServiceImpl.getOwnerView(999L)).thenThrow(new NotFoundException("Не найдена вещь с id: 999"));
+
+        assertThatThrownBy(() -> itemService.getItem(1L, 999L)).isInstanceOf(NotFoundException.class);
+        verify(itemServiceImpl, never()).getItem(any(), any());
+    }
+
+    private ItemDtoResponse ownerView() {
+        return ItemDtoResponse.builder()
+                .id(1L)
+                .name("Ноутбук")
+                .bookings(List.of())
+                .comments(List.of())
+                .lastBooking(now.minusDays(1))
+                .nextBooking(now.plusDays(1))
+                .ownerId(2L)
+                .build();
+    }
+}
@@ -1,11 +1,18 @@
 package ru.practicum.shareit.service;
 
+import ru.practicum.shareit.common.FieldSet;
+import ru.practicum.shareit.common.OffsetPageRequest;
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.item.fetch.ParallelFetcher;
 import ru.practicum.shareit.item.model.*;
 import ru.practicum.shareit.exception.*;
 import ru.practicum.shareit.item.repository.*;
+import ru.practicum.shareit.booking.archive.ArchivedBookingDates;
+import ru.practicum.shareit.booking.archive.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.shard.BookingShardOutbox;
+import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
@@ -13,10 +20,13 @@ import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
@@ -37,12 +47,24 @@ public class ItemServiceTests {
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private ArchivedBookingRepository archivedBookingRepository;
+
     @Mock
     private CommentRepository commentRepository;
 
     @Mock
     private UserService userService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private ParallelFetcher parallelFetcher = ParallelFetcher.sequential();
+
+    @Mock
+    private ObjectProvider<BookingShardOutbox> shardOutbox;
+
     @InjectMocks
     private ItemServiceImpl itemService;
 
@@ -150,6 +172,22 @@ public class ItemServiceTests {
         verify(commentRepository).save(any(Comment.class));
     }
 
+    @Test
+    void shouldAddCommentWhenBookingIsArchived() {
+        when(userRepository.findById(eq(2L))).thenReturn(Optional.of(booker));
+        when(itemRepository.findById(eq(1L))).thenReturn(Optional.of(item));
+        when(bookingRepository.findByItemIdAndBookerIdAndEndDateIsBefore(eq(1L), eq(2L), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+        when(archivedBookingRepository.existsByItemIdAndBookerIdAndEndDateIsBefore(
+                eq(1L), eq(2L), any(LocalDateTime.class))).thenReturn(true);
+        when(commentRepository.save(any(Comment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        CommentDto result = itemService.addComment(2L, 1L, commentDto);
+
+        assertEquals(commentDto.getText(), result.getText());
+        verify(commentRepository).save(any(Comment.class));
+    }
+
     @Test
     void shouldThrowNotFoundExceptionWhenUserDoesNotExist() {
         when(userRepository.findById(eq(999L))).thenReturn(Optional.empty());
@@ -253,6 +291,52 @@ public class ItemServiceTests {
         verify(commentRepository).findByItemId(1L);
     }
 
+    @Test
+    void shouldTakeOwnerBookingDatesFromArchive() {
+        LocalDateTime start = LocalDateTime.now().minusYears(2);
+        ArchivedBookingDates archived = mock(ArchivedBookingDates.class);
+        when(archived.getFirstStart()).thenReturn(start);
+        when(archived.getLastEnd()).thenReturn(start.plusDays(3));
+        when(itemRepository.findById(eq(1L))).thenReturn(Optional.of(item));
+        when(bookingRepository.findByItemId(any())).thenReturn(Collections.emptyList());
+        when(archivedBookingRepository.findDatesByItemId(1L)).thenReturn(Optional.of(archived));
+        when(commentRepository.findByItemId(any())).thenReturn(Collections.emptyList());
+
+        ItemDtoResponse result = itemService.getItem(1L, 1L);
+
+        assertEquals(start, result.getNextBooking());
+        assertEquals(start.plusDays(3), result.getLastBooking());
+    }
+
+    @Test
+    void shouldGetItemsWithBatchedBookingsAndComments() {
+        Item other = new Item();
+        other.setId(2L);
+        other.setName("Дрель");
+        other.setDescription("Ударная дрель");
+        other.setAvailable(true);
+        other.setOwner(booker);
+
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setStartDate(LocalDateTime.now().plusDays(1));
+        booking.setEndDate(LocalDateTime.now().plusDays(2));
+
+        when(itemRepository.findAllById(eq(List.of(1L, 2L, 999L)))).thenReturn(List.of(item, other));
+        when(bookingRepository.findByItemIdIn(eq(Set.of(1L, 2L)))).thenReturn(List.of(booking));
+        when(commentRepository.findByItemIdIn(eq(Set.of(1L, 2L)))).thenReturn(Collections.emptyList());
+
+        Map<Long, ItemDtoResponse> result = itemService.getItems(1L, List.of(1L, 2L, 999L));
+
+        // Отсутствующая вещь просто не попадает в результат, даты видит только владелец
+        assertEquals(Set.of(1L, 2L), result.keySet());
+        assertEquals(1, result.get(1L).getBookings().size());
+        assertEquals(booking.getStartDate(), result.get(1L).getNextBooking());
+        assertNull(result.get(2L).getNextBooking());
+        verify(bookingRepository, never()).findByItemId(any());
+        verify(commentRepository, never()).findByItemId(any());
+    }
+
     @Test
     void shouldThrowNotFoundExceptionWhenItemDoesNotExistByGetItem() {
         when(itemRepository.findById(eq(999L))).thenReturn(Optional.empty());
@@ -267,8 +351,7 @@ public class ItemServiceTests {
 
     @Test
     void shouldGetUserItems() {
-        List<Item> items = List.of(item);
-        when(itemRepository.findAllByOwnerId(eq(1L))).thenReturn(items);
+        when(itemRepository.findSummariesByOwnerId(eq(1L), any())).thenReturn(List.of(summaryOf(item)));
         when(bookingRepository.findByItemId(any())).thenReturn(Collections.emptyList());
         when(commentRepository.findByItemId(any())).thenReturn(Collections.emptyList());
 
@@ -279,7 +362,7 @@ public class ItemServiceTests {
         assertEquals(itemDto.getId(), dto.getId());
         assertEquals(itemDto.getName(), dto.getName());
 
-        verify(itemRepository).findAllByOwnerId(1L);
+        verify(itemRepository).findSummariesByOwnerId(eq(1L), eq(OffsetPageRequest.of(0, 10)));
     }
 
     @Test
@@ -291,8 +374,7 @@ public class ItemServiceTests {
         availableItem.setAvailable(true);
         availableItem.setOwner(owner);
 
-        List<Item> items = List.of(availableItem);
-        when(itemRepository.search(eq("Ноутбук"))).thenReturn(items);
+        when(itemRepository.searchAvailableSummaries(eq("Ноутбук"), any())).thenReturn(List.of(summaryOf(availableItem)));
         when(bookingRepository.findByItemId(any())).thenReturn(Collections.emptyList());
         when(commentRepository.findByItemId(any())).thenReturn(Collections.emptyList());
 
@@ -302,7 +384,48 @@ public class ItemServiceTests {
         ItemDtoResponse dto = result.iterator().next();
         assertEquals("Ноутбук", dto.getName());
 
-        verify(itemRepository).search("Ноутбук");
+        verify(itemRepository).searchAvailableSummaries(eq("Ноутбук"), eq(OffsetPageRequest.of(0, 10)));
+    }
+
+    @Test
+    void shouldCapPageSizeOfUserItems() {
+        when(itemRepository.findSummariesByOwnerId(eq(1L), any())).thenReturn(List.of());
+
+        itemService.getUserItems(1L, 500, 1000, FieldSet.ALL);
+
+        // Размер страницы не превышает максимум даже при вызове в обход контроллера
+        verify(itemRepository).findSummariesByOwnerId(eq(1L), eq(OffsetPageRequest.of(500, ItemService.MAX_PAGE_SIZE)));
+    }
+
+    @Test
+    void shouldStartSearchPageAtRowOffset() {
+        when(itemRepository.searchAvailableSummaries(eq("Ноутбук"), any())).thenReturn(List.of());
+
+        itemService.getItemsByText("Ноутбук", 3, 2, FieldSet.ALL);
+
+        // from не кратен size: страница начинается с четвёртой строки, а не с начала второй страницы
+        verify(itemRepository).searchAvailableSummaries(eq("Ноутбук"), eq(OffsetPageRequest.of(3, 2)));
+    }
+
+    @Test
+    void shouldSkipBookingsAndCommentsWhenFieldsDoNotNeedThem() {
+        when(itemRepository.findSummariesByOwnerId(eq(1L), any())).thenReturn(List.of(summaryOf(item)));
+
+        Collection<ItemDtoResponse> result = itemService.getUserItems(1L, 0, 10, FieldSet.parse("id,name"));
+
+        assertEquals(1, result.size());
+        verifyNoInteractions(bookingRepository, commentRepository);
+    }
+
+    @Test
+    void shouldLoadOnlyCommentsWhenOnlyCommentsRequested() {
+        when(itemRepository.findSummariesByOwnerId(eq(1L), any())).thenReturn(List.of(summaryOf(item)));
+        when(commentRepository.findByItemId(any())).thenReturn(Collections.emptyList());
+
+        itemService.getUserItems(1L, 0, 10, FieldSet.parse("id,comments"));
+
+        verify(commentRepository).findByItemId(item.getId());
+        verifyNoInteractions(bookingRepository);
     }
 
     @Test
@@ -316,20 +439,14 @@ public class ItemServiceTests {
 
     @Test
     void shouldReturnEmptyListWhenNoAvailableItems() {
-        Item unavailableItem = new Item();
-        unavailableItem.setId(1L);
-        unavailableItem.setName("Ноутбук");
-        unavailableItem.setDescription("Игровой ноутбук");
-        unavailableItem.setAvailable(false);
-        unavailableItem.setOwner(owner);
-
-        List<Item> items = List.of(unavailableItem);
-        when(itemRepository.search(eq("Ноутбук"))).thenReturn(items);
+        // Недоступные вещи отсекаются в запросе, поэтому репозиторий их не возвращает
+        when(itemRepository.searchAvailableSummaries(eq("Ноутбук"), any())).thenReturn(List.of());
 
         Collection<ItemDtoResponse> result = itemService.getItemsByText("Ноутбук");
 
         assertTrue(result.isEmpty());
-        verify(itemRepository).search("Ноутбук");
+        verify(itemRepository).searchAvailableSummaries(eq("Ноутбук"), eq(OffsetPageRequest.of(0, 10)));
+        verifyNoInteractions(bookingRepository, commentRepository);
     }
 
     @Test
@@ -349,4 +466,9 @@ public class ItemServiceTests {
 
         verify(itemRepository).deleteById(999L);
     }
+
+    private static ItemSummary summaryOf(Item item) {
+        return new ItemSummary(item.getId(), item.getName(), item.getDescription(), item.getAvailable(), null,
+                item.getOwner().getId());
+    }
 }
@@ -1,18 +1,24 @@
 package ru.practicum.shareit.service;
 
+import ru.practicum.shareit.booking.shard.BookingShardOutbox;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.PreconditionFailedException;
+import ru.practicum.shareit.item.cache.ItemChangedEvent;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Collection;
 import java.util.Optional;
 
@@ -25,6 +31,12 @@ public class UserServiceTests {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ObjectProvider<BookingShardOutbox> shardOutbox;
+
     @InjectMocks  // Автоматически создаст UserServiceImpl и внедрит userRepository
     private UserServiceImpl userService;
 
@@ -119,28 +131,71 @@ public class UserServiceTests {
     void shouldUpdateUserById() {
         UserDto updatedDto = UserDto.builder().name("Алексей").build();
         when(userRepository.findById(eq(1L))).thenReturn(Optional.of(user));
-        when(userRepository.save(any(User.class))).thenReturn(user);
 
         UserDto result = userService.updateUserById(updatedDto, 1L);
 
         assertEquals("Алексей", result.getName());
         assertEquals("alex@example.com", result.getEmail());
         verify(userRepository).findById(1L);
-        verify(userRepository).save(user);
+        // Имя не изменилось, кэш вещей остаётся прежним
+        verify(eventPublisher, never()).publishEvent(any());
+        // Управляемая сущность сохраняется при фиксации транзакции, отдельный save не нужен
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldFlushItemCacheWhenUserRenamed() {
+        when(userRepository.findById(eq(1L))).thenReturn(Optional.of(user));
+
+        userService.updateUserById(UserDto.builder().name("Алёша").build(), 1L);
+
+        assertEquals("Алёша", user.getName());
+        // Имя автора отзыва входит в JSON вещей, кэш которых надо сбросить
+        verify(eventPublisher).publishEvent(ItemChangedEvent.allItems());
     }
 
     @Test
     void shouldUpdateUserByIdByEmail() {
         UserDto updatedDto = UserDto.builder().email("alex@example.com").build();
         when(userRepository.findById(eq(1L))).thenReturn(Optional.of(user));
-        when(userRepository.save(any(User.class))).thenReturn(user);
 
         UserDto result = userService.updateUserById(updatedDto, 1L);
 
         assertEquals("alex@example.com", result.getEmail());
         assertEquals("Алексей", result.getName());
         verify(userRepository).findById(1L);
-        verify(userRepository).save(user);
+        // Email в JSON вещей не входит, весь кэш вещей из-за него не сбрасывается
+        verify(eventPublisher, never()).publishEvent(any());
+        // Управляемая сущность сохраняется при фиксации транзакции, отдельный save не нужен
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldUpdateUserWhenVersionMatches() {
+        UserDto updatedDto = UserDto.builder().name("Алексей").build();
+        when(userRepository.updateIfVersionMatches(1L, 4L, Map.of("name", "Алексей"))).thenReturn(1);
+
+        assertEquals(5L, userService.updateUserIfVersionMatches(updatedDto, 1L, 4L));
+        verify(userRepository, never()).findById(any());
+        verify(eventPublisher).publishEvent(ItemChangedEvent.allItems());
+    }
+
+    @Test
+    void shouldKeepItemCacheWhenOnlyEmailUpdatedWithVersion() {
+        UserDto updatedDto = UserDto.builder().email("new@example.com").build();
+        when(userRepository.updateIfVersionMatches(1L, 4L, Map.of("email", "new@example.com"))).thenReturn(1);
+
+        assertEquals(5L, userService.updateUserIfVersionMatches(updatedDto, 1L, 4L));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void shouldThrowPreconditionFailedWhenVersionChanged() {
+        UserDto updatedDto = UserDto.builder().name("Алексей").build();
+        when(userRepository.updateIfVersionMatches(eq(1L), eq(3L), anyMap())).thenReturn(0);
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(PreconditionFailedException.class, () -> userService.updateUserIfVersionMatches(updatedDto, 1L, 3L));
     }
 
     @Test
@@ -163,6 +218,7 @@ public class UserServiceTests {
         userService.deleteUser(1L);
 
         verify(userRepository).deleteById(1L);
+        verify(eventPublisher).publishEvent(ItemChangedEvent.allItems());
     }
 
     @Test
@@ -0,0 +1,117 @@
+package ru.practicum.shareit.singleflight;
+
+import ru.practicum.shareit.exception.NotFoundException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTests {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<Long, Integer> singleFlight = new SingleFlight<>("test", meterRegistry,
+            Duration.ofSeconds(5));
+
+    @Test
+    void shouldShareInFlightLoadBetweenConcurrentCalls() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+
+        try {
+            Future<Integer> leader = executor.submit(() -> singleFlight.execute(1L, () -> {
+                started.countDown();
+                await(release);
+                return loads.incrementAndGet();
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            List<Future<Integer>> followers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                followers.add(executor.submit(() -> singleFlight.execute(1L, loads::incrementAndGet)));
+            }
+            // Ждём, пока все повторные вызовы присоединятся к текущей загрузке
+            while (singleFlight.getCoalescedCount() < 4) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+            for (Future<Integer> follower : followers) {
+                assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+            }
+            assertThat(loads.get()).isEqualTo(1);
+            assertThat(meterRegistry.get("shareit.singleflight.calls").tag("result", "coalesced").counter().count())
+                    .isEqualTo(4);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldLoadDirectlyWhenInFlightLoadHangs() throws Exception {
+        SingleFlight<Long, Integer> impatient = new SingleFlight<>("impatient", meterRegistry,
+                Duration.ofMillis(100));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<Integer> leader = executor.submit(() -> impatient.execute(1L, () -> {
+                started.countDown();
+                await(release);
+                return 1;
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // Загрузка-лидер зависла: повторный вызов не ждёт её дольше таймаута и загружает сам
+            assertThat(impatient.execute(1L, () -> 2)).isEqualTo(2);
+            assertThat(impatient.getTimedOutCount()).isEqualTo(1);
+
+            release.countDown();
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldLoadAgainAfterCompletion() {
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.execute(1L, loads::incrementAndGet);
+        Integer second = singleFlight.execute(1L, loads::incrementAndGet);
+
+        assertThat(second).isEqualTo(2);
+        assertThat(singleFlight.getExecutedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotKeepFailedLoad() {
+        assertThatThrownBy(() -> singleFlight.execute(1L, () -> {
+            throw new NotFoundException("Не найдена вещь с id: 1");
+        })).isInstanceOf(NotFoundException.class);
+
+        assertThat(singleFlight.execute(1L, () -> 42)).isEqualTo(42);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.slowquery;
+
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = ShareItApp.class, properties = "shareit.slow-query.threshold=0ms")
+@AutoConfigureMockMvc
+public class SlowQueryEndpointTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+
+    @Test
+    void shouldExposeStatementsWithBindsAndCallingServiceMethod() throws Exception {
+        User booker = new User();
+        booker.setName("slow-query-booker");
+        booker.setEmail("slow-query" + System.nanoTime() + "@example.com");
+        String bookerId = String.valueOf(userRepository.save(booker).getId());
+        slowQueryLog.clear();
+
+        // Порог 0 мс: в журнал попадает каждый запрос, включая выборку бронирований по состоянию
+        bookingService.getUserBookings(Long.valueOf(bookerId), "PAST", 0, 10);
+
+        assertThat(slowQueryLog.getSlowest())
+                .anySatisfy(query -> {
+                    assertThat(query.getCaller()).startsWith("BookingServiceImpl.");
+                    assertThat(query.getSql()).contains("bookings");
+                    assertThat(query.getBinds()).contains(bookerId);
+                });
+
+        mockMvc.perform(get("/actuator/slowqueries"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].caller", hasItem(startsWith("BookingServiceImpl."))));
+
+        mockMvc.perform(delete("/actuator/slowqueries"))
+                .andExpect(status().isNoContent());
+        assertThat(slowQueryLog.getSlowest()).isEmpty();
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.slowquery;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlowQueryLogTests {
+    private final SlowQueryProperties properties = new SlowQueryProperties();
+    private SlowQueryLog slowQueryLog;
+
+    @AfterEach
+    void tearDown() {
+        slowQueryLog.close();
+    }
+
+    @Test
+    void shouldKeepOnlyTopNSlowestStatements() {
+        properties.setTopN(2);
+        properties.setExplain(false);
+        slowQueryLog = new SlowQueryLog(properties);
+
+        record("select 1", 300);
+        record("select 2", 900);
+        record("select 3", 100);
+        record("select 4", 600);
+
+        assertThat(slowQueryLog.getSlowest()).extracting(SlowQuery::getSql)
+                .containsExactly("select 2", "select 4");
+    }
+
+    @Test
+    void shouldRedactBindsAndSkipOwnFramesWhenFindingCaller() {
+        properties.setRedactBinds(true);
+        properties.setExplain(false);
+        slowQueryLog = new SlowQueryLog(properties);
+
+        record("select * from users where email = ?", 250, "ivan@example.com");
+
+        SlowQuery query = slowQueryLog.getSlowest().getFirst();
+        assertThat(query.getBinds()).containsExactly("?");
+        assertThat(query.getDurationMs()).isEqualTo(250);
+        // Кадры самого пакета slowquery пропускаются, других кадров приложения в стеке теста нет
+        assertThat(query.getCaller()).isEqualTo("неизвестно");
+    }
+
+    @Test
+    void shouldTreatThresholdAsInclusive() {
+        properties.setThreshold(Duration.ofMillis(200));
+        slowQueryLog = new SlowQueryLog(properties);
+
+        assertThat(slowQueryLog.isSlow(Duration.ofMillis(199).toNanos())).isFalse();
+        assertThat(slowQueryLog.isSlow(Duration.ofMillis(200).toNanos())).isTrue();
+    }
+
+    @Test
+    void shouldRecordStatementWithNullBinds() throws SQLException {
+        properties.setThreshold(Duration.ZERO);
+        properties.setExplain(false);
+        slowQueryLog = new SlowQueryLog(properties);
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:slow_query_null_binds");
+
+        try (Connection connection = new SlowQueryDataSource(h2, slowQueryLog).getConnection();
+             PreparedStatement statement = connection.prepareStatement("select ?, ?, ?")) {
+            statement.setNull(1, Types.VARCHAR);
+            statement.setObject(2, null);
+            statement.setLong(3, 7L);
+            statement.executeQuery().close();
+        }
+
+        assertThat(slowQueryLog.getSlowest()).singleElement()
+                .extracting(SlowQuery::getBinds)
+                .isEqualTo(List.of("null", "null", "7"));
+    }
+
+    private void record(String sql, long millis, Object... binds) {
+        List<Object> values = Arrays.asList(binds);
+        slowQueryLog.record(sql, values, Duration.ofMillis(millis).toNanos(), null);
+    }
+}
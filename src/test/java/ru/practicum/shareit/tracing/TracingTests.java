@@ -0,0 +1,142 @@
+package ru.practicum.shareit.tracing;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.slowquery.SlowQuery;
+import ru.practicum.shareit.slowquery.SlowQueryLog;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = {ShareItApp.class, TracingTests.ExporterConfig.class}, properties = {
+        "management.tracing.enabled=true",
+        "management.tracing.sampling.probability=1.0",
+        "shareit.item.parallel-fetch.enabled=true",
+        "shareit.slow-query.threshold=0ms"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability(metrics = false)
+public class TracingTests {
+    private static final AttributeKey<String> LAYER = AttributeKey.stringKey(TracingInterceptor.LAYER_TAG);
+    private static final AttributeKey<Long> STATEMENTS = AttributeKey.longKey(TracingInterceptor.STATEMENTS_TAG);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+
+    @Autowired
+    private InMemorySpanExporter exporter;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    private User owner;
+
+    @TestConfiguration
+    static class ExporterConfig {
+        @Bean
+        InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setName("tracing-owner");
+        owner.setEmail("tracing-owner" + System.nanoTime() + "@example.com");
+        owner = userRepository.save(owner);
+
+        for (int i = 0; i < 3; i++) {
+            Item item = new Item();
+            item.setName("Дрель " + i);
+            item.setDescription("Ударная");
+            item.setAvailable(true);
+            item.setOwner(owner);
+            itemRepository.save(item);
+        }
+        // Спаны предыдущего теста могут ещё лежать в очереди пакетного экспорта
+        finishedSpans();
+        exporter.reset();
+        slowQueryLog.clear();
+    }
+
+    @Test
+    void shouldTraceControllerServiceAndRepositoryCalls() throws Exception {
+        mockMvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isOk());
+
+        List<SpanData> spans = finishedSpans();
+        SpanData controller = span(spans, "ItemController.getUserItems");
+        SpanData service = span(spans, "ItemServiceImpl.getUserItems");
+        SpanData page = span(spans, "ItemRepository.findSummariesByOwnerId");
+
+        assertThat(controller.getAttributes().get(LAYER)).isEqualTo("controller");
+        assertThat(service.getAttributes().get(LAYER)).isEqualTo("service");
+        assertThat(page.getAttributes().get(LAYER)).isEqualTo("repository");
+        assertThat(page.getAttributes().get(STATEMENTS)).isEqualTo(1L);
+
+        // Все спаны одной трассы, а запросы по каждой вещи видны отдельными дочерними спанами сервиса,
+        // в том числе бронирования, прочитанные в пуле параллельного чтения
+        assertThat(spans).extracting(SpanData::getTraceId).containsOnly(controller.getTraceId());
+        assertThat(spans).filteredOn(s -> s.getName().equals("BookingRepository.findByItemId"))
+                .hasSize(3)
+                .allSatisfy(s -> assertThat(s.getParentSpanId()).isEqualTo(service.getSpanId()));
+        assertThat(service.getAttributes().get(STATEMENTS)).isGreaterThanOrEqualTo(7L);
+    }
+
+    @Test
+    void shouldReportServiceMethodAsSlowQueryCallerWhenTracing() throws Exception {
+        mockMvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isOk());
+
+        // Перехватчик трассировки стоит между сервисом и репозиторием, но вызывающим не считается
+        assertThat(slowQueryLog.getSlowest()).extracting(SlowQuery::getCaller)
+                .contains("ItemServiceImpl.getUserItems")
+                .noneMatch(caller -> caller.startsWith("Tracing"));
+    }
+
+    private List<SpanData> finishedSpans() {
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+        return exporter.getFinishedSpanItems();
+    }
+
+    private static SpanData span(List<SpanData> spans, String name) {
+        return spans.stream()
+                .filter(s -> s.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Нет спана " + name + " среди " + spans.stream()
+                        .map(SpanData::getName).toList()));
+    }
+}